@@ -2,12 +2,19 @@ package com.anywr.ahmedtest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class AhmedtestApplication {
 
+	// enough for the steps of a whole startup, later steps are dropped
+	private static final int STARTUP_STEPS_CAPACITY = 4096;
+
 	public static void main(String[] args) {
-		SpringApplication.run(AhmedtestApplication.class, args);
+		SpringApplication application = new SpringApplication(AhmedtestApplication.class);
+		// the timed steps of the startup are served by /actuator/startup
+		application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+		application.run(args);
 	}
 
 }
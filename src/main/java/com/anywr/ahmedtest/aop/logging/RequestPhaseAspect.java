@@ -0,0 +1,46 @@
+package com.anywr.ahmedtest.aop.logging;
+
+import com.anywr.ahmedtest.management.RequestTiming;
+import com.anywr.ahmedtest.management.RequestTiming.Phase;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Aspect attributing the time of the current request to the REST controller, service and repository phases of
+ * its {@link RequestTiming}. Calls made outside of a request are not timed.
+ */
+@Aspect
+public class RequestPhaseAspect {
+
+	@Around("within(@org.springframework.web.bind.annotation.RestController *)"
+			+ " && com.anywr.ahmedtest.aop.logging.LoggingAspect.applicationPackagePointcut()")
+	public Object controllerPhase(ProceedingJoinPoint joinPoint) throws Throwable {
+		return timePhase(joinPoint, Phase.CONTROLLER);
+	}
+
+	@Around("within(@org.springframework.stereotype.Service *)"
+			+ " && com.anywr.ahmedtest.aop.logging.LoggingAspect.applicationPackagePointcut()")
+	public Object servicePhase(ProceedingJoinPoint joinPoint) throws Throwable {
+		return timePhase(joinPoint, Phase.SERVICE);
+	}
+
+	@Around("within(@org.springframework.stereotype.Repository *)"
+			+ " && com.anywr.ahmedtest.aop.logging.LoggingAspect.applicationPackagePointcut()")
+	public Object repositoryPhase(ProceedingJoinPoint joinPoint) throws Throwable {
+		return timePhase(joinPoint, Phase.REPOSITORY);
+	}
+
+	private static Object timePhase(ProceedingJoinPoint joinPoint, Phase phase) throws Throwable {
+		RequestTiming timing = RequestTiming.current();
+		if (timing == null) {
+			return joinPoint.proceed();
+		}
+		timing.enter(phase);
+		try {
+			return joinPoint.proceed();
+		} finally {
+			timing.exit();
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package com.anywr.ahmedtest.aop.logging;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Aspect timing the execution of service, repository and REST controller methods, cheap enough to stay on under
+ * load, unlike {@link LoggingAspect}.
+ * <p>
+ * Each method gets a {@code method.timed} timer tagged with its layer, class and method, plus one per exception
+ * type it throws. The timers and the logger of a method are resolved on its first call and cached. Arguments are
+ * only logged at debug level for a sample of the calls, each argument rendered to at most a fixed number of
+ * characters.
+ */
+@Aspect
+public class TimingAspect {
+
+	public static final String METER_NAME = "method.timed";
+
+	private static final String NO_EXCEPTION = "none";
+
+	// collections and arrays are rendered by their size and first elements only
+	private static final int MAX_RENDERED_ELEMENTS = 3;
+
+	private final MeterRegistry meterRegistry;
+
+	private final double argumentSampleRate;
+
+	private final int maxArgumentLength;
+
+	private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+
+	/**
+	 * @param meterRegistry     the registry of the timers.
+	 * @param argumentSampleRate the fraction of the calls whose arguments are logged, when debug is enabled.
+	 * @param maxArgumentLength the maximum length of a logged argument.
+	 */
+	public TimingAspect(MeterRegistry meterRegistry, double argumentSampleRate, int maxArgumentLength) {
+		this.meterRegistry = meterRegistry;
+		this.argumentSampleRate = argumentSampleRate;
+		this.maxArgumentLength = maxArgumentLength;
+	}
+
+	/**
+	 * Advice that times a method and logs a sample of its calls.
+	 *
+	 * @param joinPoint join point for advice.
+	 * @return result.
+	 * @throws Throwable the exception thrown by the method.
+	 */
+	@Around("com.anywr.ahmedtest.aop.logging.LoggingAspect.applicationPackagePointcut()"
+			+ " && com.anywr.ahmedtest.aop.logging.LoggingAspect.springBeanPointcut()")
+	public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+		// Spring AOP builds a new Signature per call, the method is the stable key
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		MethodMeters methodMeters = meters.computeIfAbsent(method, this::register);
+		boolean sampled = methodMeters.logger.isDebugEnabled()
+				&& ThreadLocalRandom.current().nextDouble() < argumentSampleRate;
+		if (sampled) {
+			methodMeters.logger.debug("Enter: {}() with argument[s] = {}", method.getName(),
+					renderArguments(joinPoint.getArgs()));
+		}
+		long start = System.nanoTime();
+		try {
+			Object result = joinPoint.proceed();
+			long duration = System.nanoTime() - start;
+			methodMeters.timer.record(duration, TimeUnit.NANOSECONDS);
+			if (sampled) {
+				methodMeters.logger.debug("Exit: {}() in {} µs with result = {}", method.getName(), duration / 1000,
+						render(result));
+			}
+			return result;
+		} catch (Throwable e) {
+			methodMeters.failureTimer(e.getClass()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw e;
+		}
+	}
+
+	private MethodMeters register(Method method) {
+		Class<?> type = method.getDeclaringClass();
+		return new MethodMeters(LoggerFactory.getLogger(type), layer(type), type.getSimpleName(), method.getName());
+	}
+
+	private static String layer(Class<?> type) {
+		String packageName = type.getPackageName();
+		if (packageName.contains(".repository")) {
+			return "repository";
+		}
+		if (packageName.contains(".web.rest")) {
+			return "rest";
+		}
+		return "service";
+	}
+
+	private String renderArguments(Object[] args) {
+		StringBuilder rendered = new StringBuilder("[");
+		for (int i = 0; i < args.length; i++) {
+			if (i > 0) {
+				rendered.append(", ");
+			}
+			rendered.append(render(args[i]));
+		}
+		return rendered.append(']').toString();
+	}
+
+	/**
+	 * Render a value without building the text of a whole collection, then cap it.
+	 */
+	private String render(Object value) {
+		String text;
+		if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			StringBuilder elements = new StringBuilder(value.getClass().getSimpleName()).append("(size=")
+					.append(collection.size()).append(")[");
+			int count = 0;
+			for (Object element : collection) {
+				if (count == MAX_RENDERED_ELEMENTS) {
+					elements.append(", ...");
+					break;
+				}
+				elements.append(count > 0 ? ", " : "").append(abbreviate(String.valueOf(element)));
+				count++;
+			}
+			text = elements.append(']').toString();
+		} else if (value instanceof Object[]) {
+			text = value.getClass().getComponentType().getSimpleName() + "[" + ((Object[]) value).length + "]";
+		} else if (value instanceof InputStream || value instanceof OutputStream) {
+			text = value.getClass().getSimpleName();
+		} else {
+			text = String.valueOf(value);
+		}
+		return abbreviate(text);
+	}
+
+	private String abbreviate(String text) {
+		return text.length() <= maxArgumentLength ? text : text.substring(0, maxArgumentLength) + "...";
+	}
+
+	/**
+	 * The handles of a method, resolved once.
+	 */
+	private final class MethodMeters {
+
+		private final Logger logger;
+
+		private final String layer;
+
+		private final String className;
+
+		private final String methodName;
+
+		private final Timer timer;
+
+		private final Map<Class<?>, Timer> failureTimers = new ConcurrentHashMap<>();
+
+		private MethodMeters(Logger logger, String layer, String className, String methodName) {
+			this.logger = logger;
+			this.layer = layer;
+			this.className = className;
+			this.methodName = methodName;
+			this.timer = timer(NO_EXCEPTION);
+		}
+
+		private Timer failureTimer(Class<?> exceptionType) {
+			return failureTimers.computeIfAbsent(exceptionType, type -> timer(type.getSimpleName()));
+		}
+
+		private Timer timer(String exception) {
+			return Timer.builder(METER_NAME).description("Execution time of the application methods")
+					.tag("layer", layer).tag("class", className).tag("method", methodName).tag("exception", exception)
+					.register(meterRegistry);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.anywr.ahmedtest.config;
+
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Hibernate second-level cache, kept in local Caffeine caches.
+ * <p>
+ * {@link StudyClass} and {@link Teacher} entities and the results of
+ * {@link TeacherRepository#findOneByStudyClassId} are cached, each region bounded by
+ * {@code cache.<region>.maxSize} entries kept {@code cache.<region>.timeToLiveSeconds}. Hibernate evicts the
+ * entries changed through the entity manager, including by bulk {@code UPDATE} and {@code DELETE} queries; rows
+ * changed outside of this instance are only refreshed when their entry expires.
+ */
+@Configuration
+public class CacheConfiguration {
+
+    // the update timestamps must outlive any cached query result, this region is never expired
+    private static final String UPDATE_TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    private static final String QUERY_RESULTS_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment env, MeterRegistry meterRegistry) {
+        // the provider shares a cache manager per URI in the JVM, each application context gets its own
+        CacheManager cacheManager = Caching
+            .getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("ahmedtest-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        createCache(cacheManager, StudyClass.class.getName(), "studyClass", env, meterRegistry);
+        createCache(cacheManager, Teacher.class.getName(), "teacher", env, meterRegistry);
+        createCache(cacheManager, TeacherRepository.STUDY_CLASS_QUERY_CACHE, "teacherByStudyClass", env, meterRegistry);
+        createCache(cacheManager, QUERY_RESULTS_REGION, "queryResults", env, meterRegistry);
+        monitor(cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, configuration()), meterRegistry);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateSecondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private void createCache(CacheManager cacheManager, String region, String property, Environment env, MeterRegistry meterRegistry) {
+        CaffeineConfiguration<Object, Object> configuration = configuration();
+        configuration.setMaximumSize(OptionalLong.of(env.getProperty("cache." + property + ".maxSize", Long.class, 1000L)));
+        long timeToLive = env.getProperty("cache." + property + ".timeToLiveSeconds", Long.class, 3600L);
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(timeToLive)));
+        monitor(cacheManager.createCache(region, configuration), meterRegistry);
+    }
+
+    private static CaffeineConfiguration<Object, Object> configuration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // exposes the hits and misses read by the cache metrics
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+    private static void monitor(Cache<Object, Object> cache, MeterRegistry meterRegistry) {
+        JCacheMetrics.monitor(meterRegistry, cache);
+    }
+}
@@ -11,5 +11,8 @@ public final class Constants {
     public static final String SYSTEM = "system";
     public static final String DEFAULT_LANGUAGE = "en";
 
+    // Maximum number of items accepted by a bulk endpoint
+    public static final int BULK_MAX_SIZE = 1000;
+
     private Constants() {}
 }
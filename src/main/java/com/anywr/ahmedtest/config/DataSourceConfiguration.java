@@ -0,0 +1,75 @@
+package com.anywr.ahmedtest.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * The connection pools: the primary, configured by {@code spring.datasource.*}, and an optional replica serving
+ * the read-only transactions, configured by {@code replica.datasource.*} when {@code replica.datasource.url} is
+ * set. Each pool is sized by its own {@code hikari.*} properties and exports the {@code hikaricp.*} metrics,
+ * tagged with its pool name.
+ * <p>
+ * The application uses {@code dataSource}, which only takes a connection from a pool at the first statement of a
+ * transaction: a transaction served from the second-level cache takes none, and a read-only one is routed by
+ * {@link ReadOnlyRoutingDataSource}, on the primary for {@code replica.datasource.maxLagMillis} after a write.
+ */
+@Configuration
+public class DataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty("replica.datasource.url")
+    @ConfigurationProperties("replica.datasource.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties, Environment env) {
+        return DataSourceBuilder
+            .create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(env.getProperty("replica.datasource.url"))
+            .username(env.getProperty("replica.datasource.username", properties.determineUsername()))
+            .password(env.getProperty("replica.datasource.password", properties.determinePassword()))
+            .build();
+    }
+
+    @Bean
+    public ReplicaLag replicaLag(Environment env) {
+        return new ReplicaLag(env.getProperty("replica.datasource.maxLagMillis", Long.class, 2000L));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") DataSource primaryDataSource,
+        @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+        ReplicaLag replicaLag
+    ) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        // the target is set after construction: the constructor would take a connection to read the defaults,
+        // which are the PostgreSQL ones and are set before afterPropertiesSet instead
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(
+            replica == null ? primaryDataSource : new ReadOnlyRoutingDataSource(primaryDataSource, replica, replicaLag)
+        );
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+}
@@ -0,0 +1,72 @@
+package com.anywr.ahmedtest.config;
+
+import com.anywr.ahmedtest.management.JdbcTimingListener;
+import com.anywr.ahmedtest.management.SqlBudgetFilter;
+import com.anywr.ahmedtest.management.SqlBudgetListener;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+/**
+ * Proxies the connection pools of {@link DataSourceConfiguration} to observe the JDBC statements: their time per
+ * request phase when {@code requestTiming.enabled}, and their count against the SQL budgets of the requests when
+ * {@code sqlBudget.enabled}, see {@link SqlBudgetFilter}. Counting the rows read, {@code sqlBudget.countRows},
+ * proxies every result set.
+ */
+@Configuration
+public class DataSourceProxyConfiguration {
+
+    /**
+     * Static, as a post processor is created before the other beans of its configuration.
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(Environment env) {
+        boolean timing = env.getProperty("requestTiming.enabled", Boolean.class, true);
+        boolean budget = env.getProperty("sqlBudget.enabled", Boolean.class, true);
+        boolean countRows = budget && env.getProperty("sqlBudget.countRows", Boolean.class, true);
+        long slowStatementMillis = env.getProperty("sqlBudget.slowStatementMillis", Long.class, 500L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // the pools, below the routing data source, so that each statement is seen once
+                if (!(bean instanceof HikariDataSource) || (!timing && !budget)) {
+                    return bean;
+                }
+                // the proxy unwraps to the pool, whose metrics are still found
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(beanName, (HikariDataSource) bean);
+                if (timing) {
+                    builder.listener(new JdbcTimingListener());
+                }
+                if (budget) {
+                    SqlBudgetListener listener = new SqlBudgetListener(slowStatementMillis);
+                    builder.listener(listener);
+                    if (countRows) {
+                        builder.proxyResultSet().methodListener(listener);
+                    }
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sqlBudget.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(MeterRegistry meterRegistry, Environment env) {
+        SqlBudgetFilter filter = new SqlBudgetFilter(
+            meterRegistry,
+            env.getProperty("sqlBudget.statements", Integer.class, 20),
+            env.getProperty("sqlBudget.rows", Integer.class, 5000)
+        );
+        FilterRegistrationBean<SqlBudgetFilter> registration = new FilterRegistrationBean<>(filter);
+        // right after the request timing, so that the statements of the security filters are counted
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
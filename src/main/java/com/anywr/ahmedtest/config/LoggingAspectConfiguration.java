@@ -0,0 +1,36 @@
+package com.anywr.ahmedtest.config;
+
+import com.anywr.ahmedtest.aop.logging.LoggingAspect;
+import com.anywr.ahmedtest.aop.logging.TimingAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.env.Environment;
+
+/**
+ * Registers the aspect selected by {@code aop.logging.mode}: {@code debug} logs the arguments and result of every
+ * call with {@link LoggingAspect}, for development only; {@code timing} records timers with {@link TimingAspect}
+ * and logs a sample of the calls; {@code none} (default) registers no aspect.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+public class LoggingAspectConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "aop.logging.mode", havingValue = "debug")
+    public LoggingAspect loggingAspect() {
+        return new LoggingAspect();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "aop.logging.mode", havingValue = "timing")
+    public TimingAspect timingAspect(MeterRegistry meterRegistry, Environment env) {
+        return new TimingAspect(
+            meterRegistry,
+            env.getProperty("aop.logging.argumentSampleRate", Double.class, 0.01),
+            env.getProperty("aop.logging.maxArgumentLength", Integer.class, 200)
+        );
+    }
+}
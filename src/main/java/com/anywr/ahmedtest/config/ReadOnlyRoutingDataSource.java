@@ -0,0 +1,35 @@
+package com.anywr.ahmedtest.config;
+
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes the connections of read-only transactions to the replica, and all the others to the primary. While the
+ * replica may still miss the last write, see {@link ReplicaLag}, read-only transactions run on the primary too.
+ * <p>
+ * The transaction is only known once it started, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers getting the connection
+ * to the first statement.
+ */
+public class ReadOnlyRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private static final String REPLICA = "replica";
+
+    private final ReplicaLag replicaLag;
+
+    public ReadOnlyRoutingDataSource(DataSource primary, DataSource replica, ReplicaLag replicaLag) {
+        this.replicaLag = replicaLag;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !replicaLag.isBehind() ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,48 @@
+package com.anywr.ahmedtest.config;
+
+import java.util.function.LongSupplier;
+
+/**
+ * The time the replica may take to apply a write of the primary.
+ * <p>
+ * For that time after a write commits, {@link ReadOnlyRoutingDataSource} routes the read-only transactions to the
+ * primary too: a read that follows a write sees it, and a list answered under a change token bumped by the write
+ * carries it. Only the writes recorded with {@link #writeCommitted()} are covered.
+ */
+public class ReplicaLag {
+
+    private final long maxLagNanos;
+
+    private final LongSupplier nanoTime;
+
+    private volatile long lastWriteNanos;
+
+    private volatile boolean written;
+
+    /**
+     * @param maxLagMillis the longest time the replica may take to apply a write.
+     */
+    public ReplicaLag(long maxLagMillis) {
+        this(maxLagMillis, System::nanoTime);
+    }
+
+    ReplicaLag(long maxLagMillis, LongSupplier nanoTime) {
+        this.maxLagNanos = maxLagMillis * 1_000_000;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Record that a write was committed on the primary.
+     */
+    public void writeCommitted() {
+        lastWriteNanos = nanoTime.getAsLong();
+        written = true;
+    }
+
+    /**
+     * @return whether the replica may still miss the last write committed.
+     */
+    public boolean isBehind() {
+        return written && nanoTime.getAsLong() - lastWriteNanos < maxLagNanos;
+    }
+}
@@ -0,0 +1,34 @@
+package com.anywr.ahmedtest.config;
+
+import com.anywr.ahmedtest.aop.logging.RequestPhaseAspect;
+import com.anywr.ahmedtest.management.RequestTimingFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.Ordered;
+
+/**
+ * Per-request phase timing, see {@link RequestTimingFilter}: the filter comes first, before the security filters;
+ * the controller, service and repository phases are delimited by {@link RequestPhaseAspect}, and the JDBC
+ * statements are timed by {@link DataSourceProxyConfiguration}. Disabled by {@code requestTiming.enabled=false}.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+@ConditionalOnProperty(name = "requestTiming.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTimingConfiguration {
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestTimingFilter> registration = new FilterRegistrationBean<>(new RequestTimingFilter(meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public RequestPhaseAspect requestPhaseAspect() {
+        return new RequestPhaseAspect();
+    }
+}
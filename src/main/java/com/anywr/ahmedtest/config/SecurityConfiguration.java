@@ -1,16 +1,34 @@
 package com.anywr.ahmedtest.config;
 
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import com.anywr.ahmedtest.security.ApiLimitFilter;
+import com.anywr.ahmedtest.security.ApiLimits;
+import com.anywr.ahmedtest.security.AuthoritiesConstants;
+import com.anywr.ahmedtest.security.BoundedPasswordEncoder;
+import com.anywr.ahmedtest.security.DomainUserDetailsService;
+import com.anywr.ahmedtest.security.LoginThrottlingFilter;
+import com.anywr.ahmedtest.security.TokenBucketTable;
 import com.anywr.ahmedtest.security.jwt.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.filter.CorsFilter;
 
@@ -24,17 +42,66 @@ public class SecurityConfiguration {
 
     private final CorsFilter corsFilter;
 
+    private final SecurityMetersService securityMetersService;
+
+    private final Environment environment;
+
+    private final ApiLimits apiLimits;
+
+    private final ObjectMapper objectMapper;
+
     public SecurityConfiguration(
         TokenProvider tokenProvider,
-        CorsFilter corsFilter
+        CorsFilter corsFilter,
+        SecurityMetersService securityMetersService,
+        Environment environment,
+        ApiLimits apiLimits,
+        ObjectMapper objectMapper
     ) {
         this.tokenProvider = tokenProvider;
         this.corsFilter = corsFilter;
+        this.securityMetersService = securityMetersService;
+        this.environment = environment;
+        this.apiLimits = apiLimits;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * New hashes are written as {@code {bcrypt}} at the configured strength. Hashes without an encoder id, written
+     * before the prefix was introduced, are matched as bcrypt and upgraded on the next successful login, as are
+     * hashes of a lower strength. Hashing runs on a bounded pool, see {@link BoundedPasswordEncoder}.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+        @Value("${security.bcrypt.strength:10}") int strength,
+        MeterRegistry meterRegistry
+    ) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new BoundedPasswordEncoder(
+            passwordEncoder,
+            environment.getProperty("security.passwordHashing.threads", Integer.class, Runtime.getRuntime().availableProcessors()),
+            environment.getProperty("security.passwordHashing.queueCapacity", Integer.class, 100),
+            environment.getProperty("security.passwordHashing.retryAfterSeconds", Long.class, 1L),
+            meterRegistry
+        );
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public DaoAuthenticationProvider authenticationProvider(
+        DomainUserDetailsService userDetailsService,
+        PasswordEncoder passwordEncoder,
+        UserCache userCache
+    ) {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(userDetailsService);
+        authenticationProvider.setUserDetailsPasswordService(userDetailsService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        authenticationProvider.setUserCache(userCache);
+        // the cached UserDetails must not be the principal, its password would be erased after authentication
+        authenticationProvider.setForcePrincipalAsString(true);
+        return authenticationProvider;
     }
 
     @SuppressWarnings("deprecation")
@@ -46,6 +113,8 @@ public class SecurityConfiguration {
             .disable()
             .addFilterBefore(corsFilter, UsernamePasswordAuthenticationFilter.class)
             .exceptionHandling()
+                // JWT only: no Basic challenge, whose credentials would be hashed without throttling
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
         .and()
             .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -53,17 +122,37 @@ public class SecurityConfiguration {
             .authorizeRequests()
             .antMatchers(HttpMethod.OPTIONS, "/**").permitAll()
             .antMatchers(HttpMethod.POST, "/api/authenticate").permitAll()
+            .antMatchers(HttpMethod.POST, "/api/refresh").permitAll()
+            .antMatchers(HttpMethod.GET, "/api/jwks").permitAll()
             .antMatchers("/api/register").permitAll()
-            .antMatchers("/api/**").authenticated()
-        .and()
-            .httpBasic()
+            .antMatchers("/api/logout").authenticated()
+            .antMatchers("/api/students/bulk", "/api/teachers/bulk", "/api/students/import", "/api/students/export").hasAuthority(AuthoritiesConstants.ADMIN)
+            .antMatchers("/api/**").hasAnyAuthority(AuthoritiesConstants.USER, AuthoritiesConstants.ADMIN)
+            .antMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+            .antMatchers("/actuator/**").hasAuthority(AuthoritiesConstants.ADMIN)
         .and()
             .apply(securityConfigurerAdapter());
-        return http.build();
         // @formatter:on
+        if (environment.getProperty("security.loginThrottling.enabled", Boolean.class, true)) {
+            // before any authentication filter, so that rejected attempts don't hash a password
+            http.addFilterAfter(loginThrottlingFilter(), CorsFilter.class);
+        }
+        return http.build();
+    }
+
+    private LoginThrottlingFilter loginThrottlingFilter() {
+        int perIpPerMinute = environment.getProperty("security.loginThrottling.perIpPerMinute", Integer.class, 30);
+        int perLoginPerMinute = environment.getProperty("security.loginThrottling.perLoginPerMinute", Integer.class, 10);
+        int maxKeys = environment.getProperty("security.loginThrottling.maxKeys", Integer.class, 100_000);
+        return new LoginThrottlingFilter(
+            new TokenBucketTable(perIpPerMinute, perIpPerMinute, maxKeys),
+            new TokenBucketTable(perLoginPerMinute, perLoginPerMinute, maxKeys),
+            securityMetersService,
+            objectMapper
+        );
     }
 
     private JWTConfigurer securityConfigurerAdapter() {
-        return new JWTConfigurer(tokenProvider);
+        return new JWTConfigurer(tokenProvider, new ApiLimitFilter(apiLimits, securityMetersService));
     }
 }
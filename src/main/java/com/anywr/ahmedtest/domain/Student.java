@@ -2,6 +2,7 @@ package com.anywr.ahmedtest.domain;
 
 import java.io.Serializable;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import javax.persistence.*;
@@ -11,7 +12,13 @@ import javax.validation.constraints.*;
  * A Student.
  */
 @Entity
-@Table(name = "student")
+@Table(
+    name = "student",
+    indexes = {
+        @Index(name = "idx_student_study_class_id", columnList = "study_class_id"),
+        @Index(name = "idx_student_last_name_id", columnList = "last_name, id"),
+    }
+)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Student implements Serializable {
 
@@ -19,10 +26,15 @@ public class Student implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", sequenceName = "sequence_generator", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -31,7 +43,7 @@ public class Student implements Serializable {
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @NotNull
     @JsonIgnoreProperties(value = { "teacher" }, allowSetters = true)
     private StudyClass studyClass;
@@ -49,6 +61,14 @@ public class Student implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return this.firstName;
     }
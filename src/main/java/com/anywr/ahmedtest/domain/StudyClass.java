@@ -2,17 +2,21 @@ package com.anywr.ahmedtest.domain;
 
 import java.io.Serializable;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import javax.validation.constraints.*;
 
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * A StudyClass.
  */
 @Entity
-@Table(name = "study_class")
+@Table(name = "study_class", indexes = { @Index(name = "idx_study_class_name_id", columnList = "name, id") })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class StudyClass implements Serializable {
 
@@ -20,14 +24,20 @@ public class StudyClass implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", sequenceName = "sequence_generator", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "name", nullable = false)
     private String name;
     
+    // the non-owning side of a one-to-one cannot be proxied: reads fetch it with an entity graph
     @JsonIgnoreProperties(value = { "studyClass" }, allowSetters = true)
     @OneToOne(mappedBy = "studyClass")
     private Teacher teacher;
@@ -46,6 +56,14 @@ public class StudyClass implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return this.name;
     }
@@ -2,17 +2,27 @@ package com.anywr.ahmedtest.domain;
 
 import java.io.Serializable;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import javax.validation.constraints.*;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 
 /**
  * A Teacher.
  */
 @Entity
-@Table(name = "teacher")
+@Table(
+    name = "teacher",
+    indexes = {
+        @Index(name = "idx_teacher_full_name", columnList = "full_name"),
+        @Index(name = "idx_teacher_last_name_id", columnList = "last_name, id"),
+    }
+)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @SuppressWarnings("common-java:DuplicatedBlocks")
 public class Teacher implements Serializable {
 
@@ -20,10 +30,15 @@ public class Teacher implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequenceGenerator")
-    @SequenceGenerator(name = "sequenceGenerator")
+    @SequenceGenerator(name = "sequenceGenerator", sequenceName = "sequence_generator", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
+    @Version
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @NotNull
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -32,8 +47,15 @@ public class Teacher implements Serializable {
     @Column(name = "last_name", nullable = false)
     private String lastName;
 
+    /**
+     * Search key for {@code teacherFullName} filters, maintained by the service layer.
+     */
+    @JsonIgnore
+    @Column(name = "full_name", length = 511, nullable = false)
+    private String fullName;
+
     @JsonIgnoreProperties(value = { "teacher" }, allowSetters = true)
-    @OneToOne(optional = false)
+    @OneToOne(optional = false, fetch = FetchType.LAZY)
     @NotNull
     @JoinColumn(unique = true)
     private StudyClass studyClass;
@@ -51,6 +73,14 @@ public class Teacher implements Serializable {
         this.id = id;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getFirstName() {
         return this.firstName;
     }
@@ -77,6 +107,35 @@ public class Teacher implements Serializable {
         this.lastName = lastName;
     }
 
+    public String getFullName() {
+        return this.fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    /**
+     * Recompute the full name search key from the first and last names.
+     *
+     * @return this teacher.
+     */
+    public Teacher refreshFullName() {
+        this.setFullName(fullNameOf(this.firstName, this.lastName));
+        return this;
+    }
+
+    /**
+     * Build the full name search key as exposed by the {@code teacherFullName} filter.
+     *
+     * @param firstName the first name.
+     * @param lastName the last name.
+     * @return the full name 'firstName lastName'.
+     */
+    public static String fullNameOf(String firstName, String lastName) {
+        return firstName + " " + lastName;
+    }
+
     public StudyClass getStudyClass() {
         return this.studyClass;
     }
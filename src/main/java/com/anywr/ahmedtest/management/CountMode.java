@@ -0,0 +1,41 @@
+package com.anywr.ahmedtest.management;
+
+import com.anywr.ahmedtest.web.rest.errors.BadRequestAlertException;
+
+import java.util.Locale;
+
+/**
+ * How the total number of elements of a paged list is computed, selected with the {@code count} request parameter.
+ */
+public enum CountMode {
+    /**
+     * No total is computed: only the {@code next}, {@code prev} and {@code first} links are emitted.
+     */
+    NONE,
+    /**
+     * An exact {@code COUNT(*)} runs with every page.
+     */
+    EXACT,
+    /**
+     * The total comes from cached counts or from the table statistics of the database.
+     */
+    ESTIMATE;
+
+    /**
+     * Parse the value of the {@code count} request parameter.
+     *
+     * @param value the parameter value, may be {@code null}.
+     * @return the count mode, {@link #EXACT} if no value is given.
+     * @throws BadRequestAlertException if the value is not a count mode.
+     */
+    public static CountMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count mode, expected one of none, exact, estimate");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.anywr.ahmedtest.management;
+
+import com.anywr.ahmedtest.web.rest.errors.PreconditionFailedException;
+
+/**
+ * Utility class for the entity tags of the REST resources.
+ * <p>
+ * The entity tag of a single entity is built from its version followed by the versions of the related entities it
+ * shows, so {@code If-Match} is checked against the leading version only.
+ */
+public final class ETagUtil {
+
+    private static final String ANY = "*";
+
+    private ETagUtil() {}
+
+    /**
+     * Build a strong entity tag.
+     *
+     * @param value the value identifying the representation.
+     * @return the quoted entity tag.
+     */
+    public static String strong(String value) {
+        return "\"" + value + "\"";
+    }
+
+    /**
+     * Read the version expected by an {@code If-Match} header.
+     *
+     * @param ifMatch the header value, may be {@code null}.
+     * @return the expected version, or {@code null} if any version matches.
+     * @throws PreconditionFailedException if the header can't match any version.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ANY.equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        // If-Match uses the strong comparison, a weak tag never matches
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PreconditionFailedException("If-Match doesn't match the current version");
+        }
+        String value = tag.substring(1, tag.length() - 1);
+        int end = value.indexOf('-');
+        try {
+            return Long.parseLong(end < 0 ? value : value.substring(0, end));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match doesn't match the current version");
+        }
+    }
+}
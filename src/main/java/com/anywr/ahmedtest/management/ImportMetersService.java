@@ -0,0 +1,60 @@
+package com.anywr.ahmedtest.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+
+@Service
+public class ImportMetersService {
+
+    public static final String IMPORT_ROWS_METER_NAME = "students.import.rows";
+    public static final String IMPORT_ROWS_METER_DESCRIPTION = "Indicates the number of rows read by the student imports.";
+    public static final String IMPORT_ROWS_METER_BASE_UNIT = "rows";
+    public static final String IMPORT_ROWS_METER_RESULT_DIMENSION = "result";
+
+    public static final String IMPORT_BATCHES_METER_NAME = "students.import.batches";
+    public static final String IMPORT_BATCHES_METER_DESCRIPTION = "Indicates the number of batches committed by the student imports.";
+
+    public static final String IMPORT_ACTIVE_METER_NAME = "students.import.active";
+    public static final String IMPORT_ACTIVE_METER_DESCRIPTION = "Indicates the number of student imports in progress.";
+
+    private final Counter importedRowsCounter;
+    private final Counter rejectedRowsCounter;
+    private final Counter batchesCounter;
+    private final AtomicInteger activeImports = new AtomicInteger();
+
+    public ImportMetersService(MeterRegistry registry) {
+        this.importedRowsCounter = importRowsCounterForResultBuilder("imported").register(registry);
+        this.rejectedRowsCounter = importRowsCounterForResultBuilder("rejected").register(registry);
+        this.batchesCounter = Counter.builder(IMPORT_BATCHES_METER_NAME).description(IMPORT_BATCHES_METER_DESCRIPTION).register(registry);
+        Gauge.builder(IMPORT_ACTIVE_METER_NAME, activeImports, AtomicInteger::get).description(IMPORT_ACTIVE_METER_DESCRIPTION).register(registry);
+    }
+
+    private Counter.Builder importRowsCounterForResultBuilder(String result) {
+        return Counter
+            .builder(IMPORT_ROWS_METER_NAME)
+            .baseUnit(IMPORT_ROWS_METER_BASE_UNIT)
+            .description(IMPORT_ROWS_METER_DESCRIPTION)
+            .tag(IMPORT_ROWS_METER_RESULT_DIMENSION, result);
+    }
+
+    public void trackImportStarted() {
+        this.activeImports.incrementAndGet();
+    }
+
+    public void trackImportFinished() {
+        this.activeImports.decrementAndGet();
+    }
+
+    public void trackBatchImported(int rows) {
+        this.batchesCounter.increment();
+        this.importedRowsCounter.increment(rows);
+    }
+
+    public void trackRowsRejected(int rows) {
+        this.rejectedRowsCounter.increment(rows);
+    }
+}
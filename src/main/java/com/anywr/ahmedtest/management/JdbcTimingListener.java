@@ -0,0 +1,31 @@
+package com.anywr.ahmedtest.management;
+
+import com.anywr.ahmedtest.management.RequestTiming.Phase;
+import java.util.List;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Attributes the execution of JDBC statements to the {@link Phase#JDBC} phase of the current request, and counts
+ * them. A batch counts as one statement.
+ */
+public class JdbcTimingListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.enter(Phase.JDBC);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.exit();
+            timing.statementExecuted();
+        }
+    }
+}
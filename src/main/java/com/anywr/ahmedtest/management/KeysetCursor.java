@@ -0,0 +1,76 @@
+package com.anywr.ahmedtest.management;
+
+import com.anywr.ahmedtest.web.rest.errors.BadRequestAlertException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Opaque position in a keyset (seek) pagination over {@code (sort key, id)}.
+ *
+ * The cursor is exchanged with clients as a URL-safe Base64 string through the {@code after} request parameter.
+ */
+public final class KeysetCursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String sortKey;
+
+    private final Long id;
+
+    private KeysetCursor(String sortKey, Long id) {
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public static KeysetCursor of(String sortKey, Long id) {
+        return new KeysetCursor(sortKey, id);
+    }
+
+    /**
+     * Decode the value of an {@code after} request parameter.
+     *
+     * @param value the encoded cursor.
+     * @return the cursor, or {@code null} if the value is empty (first page).
+     * @throws BadRequestAlertException if the value is not a cursor issued by {@link #encode()}.
+     */
+    public static KeysetCursor decode(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new BadRequestAlertException("Invalid cursor");
+            }
+            return new KeysetCursor(decoded.substring(separator + 1), Long.valueOf(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "sortKey='" + sortKey + "'" +
+            ", id=" + id +
+            "}";
+    }
+}
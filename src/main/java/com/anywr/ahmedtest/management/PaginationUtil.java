@@ -1,8 +1,11 @@
 package com.anywr.ahmedtest.management;
 
 import java.text.MessageFormat;
+import java.util.List;
+import java.util.function.Function;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -31,6 +34,70 @@ public final class PaginationUtil {
         return headers;
     }
     
+    /**
+     * Generate the pagination headers of a slice. A {@link Page} gets the full set of headers, a slice without total
+     * only gets the {@code next}, {@code prev} and {@code first} links, which need no count query.
+     *
+     * @param uriBuilder the current request URI.
+     * @param slice the current page.
+     * @return the pagination headers.
+     */
+    public static <T> HttpHeaders generatePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        if (slice instanceof Page) {
+            return generatePaginationHttpHeaders(uriBuilder, (Page<T>) slice);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next"))
+                .append(",");
+        }
+        if (pageNumber > 0) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev"))
+                .append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    /**
+     * Generate the pagination headers of a keyset page: only a {@code next} link built from the last row,
+     * and a {@code first} link. No total count is computed.
+     *
+     * @param uriBuilder the current request URI.
+     * @param slice the current page.
+     * @param cursorOf extracts the keyset cursor of a row.
+     * @return the pagination headers.
+     */
+    public static <T> HttpHeaders generateKeysetHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice,
+            Function<T, KeysetCursor> cursorOf) {
+        HttpHeaders headers = new HttpHeaders();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        List<T> content = slice.getContent();
+        if (slice.hasNext() && !content.isEmpty()) {
+            String after = cursorOf.apply(content.get(content.size() - 1)).encode();
+            link.append(prepareKeysetLink(uriBuilder, after, pageSize, "next"))
+                .append(",");
+        }
+        link.append(prepareKeysetLink(uriBuilder, "", pageSize, "first"));
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareKeysetLink(UriComponentsBuilder uriBuilder, String after, int pageSize, String relType) {
+        String uri = uriBuilder.replaceQueryParam("page")
+            .replaceQueryParam("after", after)
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+
     private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
         return MessageFormat.format(HEADER_LINK_FORMAT, preparePageUri(uriBuilder, pageNumber, pageSize), relType);
     }
@@ -0,0 +1,153 @@
+package com.anywr.ahmedtest.management;
+
+import java.util.Locale;
+
+/**
+ * The time spent by the current request in each phase of its processing, phases being exclusive: the time of a
+ * service called by a controller is not counted in the controller phase.
+ * <p>
+ * It is bound to the request thread by {@link RequestTimingFilter}; work done on other threads, e.g. the body of
+ * a streamed response, is not counted.
+ */
+public final class RequestTiming {
+
+    /**
+     * A phase of the processing of a request.
+     */
+    public enum Phase {
+        /**
+         * The servlet filters, security included, before the controller is called.
+         */
+        FILTER,
+        CONTROLLER,
+        SERVICE,
+        REPOSITORY,
+        /**
+         * The execution of JDBC statements, whichever layer runs them.
+         */
+        JDBC,
+        /**
+         * The serialization of the response and the filters after the controller returned.
+         */
+        RESPONSE;
+
+        private final String tag = name().toLowerCase(Locale.ENGLISH);
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private static final int MAX_DEPTH = 64;
+
+    private final long[] nanos = new long[Phase.values().length];
+
+    private final Phase[] stack = new Phase[MAX_DEPTH];
+
+    private int depth;
+
+    private Phase current = Phase.FILTER;
+
+    private long mark = System.nanoTime();
+
+    private int statements;
+
+    private RequestTiming() {}
+
+    static RequestTiming start() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the timing of the request processed by the current thread, or {@code null}.
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Start a nested phase.
+     *
+     * @param phase the phase.
+     */
+    public void enter(Phase phase) {
+        account();
+        if (depth < MAX_DEPTH) {
+            stack[depth] = current;
+        }
+        depth++;
+        current = phase;
+    }
+
+    /**
+     * End the current phase and get back to the enclosing one. Once the controller returns, the remaining time is
+     * counted as {@link Phase#RESPONSE}.
+     */
+    public void exit() {
+        account();
+        Phase exited = current;
+        depth--;
+        if (depth >= 0 && depth < MAX_DEPTH) {
+            current = stack[depth];
+        }
+        if (exited == Phase.CONTROLLER && current == Phase.FILTER) {
+            current = Phase.RESPONSE;
+        }
+    }
+
+    /**
+     * Count an executed JDBC statement.
+     */
+    public void statementExecuted() {
+        statements++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @param phase the phase.
+     * @return the nanoseconds spent so far in the phase.
+     */
+    public long getNanos(Phase phase) {
+        account();
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * @return the phases spent so far, as a {@code Server-Timing} header value.
+     */
+    public String toServerTiming() {
+        account();
+        StringBuilder header = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            long phaseNanos = nanos[phase.ordinal()];
+            if (phaseNanos == 0) {
+                continue;
+            }
+            if (header.length() > 0) {
+                header.append(", ");
+            }
+            header.append(phase.getTag()).append(";dur=").append(String.format(Locale.ROOT, "%.3f", phaseNanos / 1e6));
+            if (phase == Phase.JDBC) {
+                header.append(";desc=\"").append(statements).append(" statements\"");
+            }
+        }
+        return header.toString();
+    }
+
+    private void account() {
+        long now = System.nanoTime();
+        nanos[current.ordinal()] += now - mark;
+        mark = now;
+    }
+}
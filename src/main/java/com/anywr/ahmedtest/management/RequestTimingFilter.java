@@ -0,0 +1,82 @@
+package com.anywr.ahmedtest.management;
+
+import com.anywr.ahmedtest.management.RequestTiming.Phase;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Binds a {@link RequestTiming} to each request and records its phases once it completes.
+ * <p>
+ * Each phase spent by a request is recorded in a {@code http.server.requests.phase} timer tagged with the phase,
+ * the URI pattern and the method; the number of JDBC statements executed in a
+ * {@code http.server.requests.jdbc.statements} summary. Their histograms and SLO buckets are configured with the
+ * {@code management.metrics.distribution.*.http.server.requests} properties. It must be the first filter for the
+ * security phase to be counted.
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String PHASE_METER_NAME = "http.server.requests.phase";
+
+    public static final String STATEMENTS_METER_NAME = "http.server.requests.jdbc.statements";
+
+    // requests rejected before reaching a controller, e.g. by the security filters
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTiming.clear();
+            // the body of a streamed response is written on another thread, its timing would be partial
+            if (!request.isAsyncStarted()) {
+                record(timing, request);
+            }
+        }
+    }
+
+    private void record(RequestTiming timing, HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        String method = request.getMethod();
+        for (Phase phase : Phase.values()) {
+            long nanos = timing.getNanos(phase);
+            // a phase the request didn't go through would only skew its percentiles towards zero
+            if (nanos > 0) {
+                Timer
+                    .builder(PHASE_METER_NAME)
+                    .description("Time spent by the requests in each phase of their processing")
+                    .tag("phase", phase.getTag())
+                    .tag("uri", uri)
+                    .tag("method", method)
+                    .register(meterRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        DistributionSummary
+            .builder(STATEMENTS_METER_NAME)
+            .description("JDBC statements executed per request")
+            .baseUnit("statements")
+            .tag("uri", uri)
+            .tag("method", method)
+            .register(meterRegistry)
+            .record(timing.getStatements());
+    }
+}
@@ -14,16 +14,58 @@ public class SecurityMetersService {
     public static final String INVALID_TOKENS_METER_BASE_UNIT = "errors";
     public static final String INVALID_TOKENS_METER_CAUSE_DIMENSION = "cause";
 
+    public static final String TOKEN_CACHE_METER_NAME = "security.authentication.token-cache";
+    public static final String TOKEN_CACHE_METER_DESCRIPTION = "Indicates lookups of presented tokens in the verified token cache.";
+    public static final String TOKEN_CACHE_METER_RESULT_DIMENSION = "result";
+
+    public static final String TOKEN_CACHE_EVICTIONS_METER_NAME = "security.authentication.token-cache.evictions";
+    public static final String TOKEN_CACHE_EVICTIONS_METER_DESCRIPTION = "Indicates entries removed from the verified token cache.";
+    public static final String TOKEN_CACHE_EVICTION_EXPIRED = "expired";
+    public static final String TOKEN_CACHE_EVICTION_SIZE = "size";
+
+    public static final String LOGIN_THROTTLED_METER_NAME = "security.authentication.throttled";
+    public static final String LOGIN_THROTTLED_METER_DESCRIPTION = "Indicates login and registration attempts rejected by the throttling.";
+    public static final String LOGIN_THROTTLED_METER_KEY_DIMENSION = "key";
+    public static final String LOGIN_THROTTLED_IP = "ip";
+    public static final String LOGIN_THROTTLED_LOGIN = "login";
+
+    public static final String API_LIMITED_METER_NAME = "security.api.limited";
+    public static final String API_LIMITED_METER_DESCRIPTION = "Indicates API requests rejected by the rate and concurrency limits.";
+    public static final String API_LIMITED_METER_REASON_DIMENSION = "reason";
+    public static final String API_LIMITED_RATE = "rate";
+    public static final String API_LIMITED_CONCURRENCY = "concurrency";
+    public static final String API_LIMITED_CLIENT_CONCURRENCY = "client-concurrency";
+
     private final Counter tokenInvalidSignatureCounter;
     private final Counter tokenExpiredCounter;
     private final Counter tokenUnsupportedCounter;
     private final Counter tokenMalformedCounter;
+    private final Counter tokenRevokedCounter;
+    private final Counter tokenCacheHitCounter;
+    private final Counter tokenCacheMissCounter;
+    private final Counter tokenCacheExpiredEvictionCounter;
+    private final Counter tokenCacheSizeEvictionCounter;
+    private final Counter loginThrottledByIpCounter;
+    private final Counter loginThrottledByLoginCounter;
+    private final Counter apiRateLimitedCounter;
+    private final Counter apiConcurrencyLimitedCounter;
+    private final Counter apiClientConcurrencyLimitedCounter;
 
     public SecurityMetersService(MeterRegistry registry) {
         this.tokenInvalidSignatureCounter = invalidTokensCounterForCauseBuilder("invalid-signature").register(registry);
         this.tokenExpiredCounter = invalidTokensCounterForCauseBuilder("expired").register(registry);
         this.tokenUnsupportedCounter = invalidTokensCounterForCauseBuilder("unsupported").register(registry);
         this.tokenMalformedCounter = invalidTokensCounterForCauseBuilder("malformed").register(registry);
+        this.tokenRevokedCounter = invalidTokensCounterForCauseBuilder("revoked").register(registry);
+        this.tokenCacheHitCounter = tokenCacheCounterForResultBuilder("hit").register(registry);
+        this.tokenCacheMissCounter = tokenCacheCounterForResultBuilder("miss").register(registry);
+        this.tokenCacheExpiredEvictionCounter = tokenCacheEvictionsCounterForCauseBuilder(TOKEN_CACHE_EVICTION_EXPIRED).register(registry);
+        this.tokenCacheSizeEvictionCounter = tokenCacheEvictionsCounterForCauseBuilder(TOKEN_CACHE_EVICTION_SIZE).register(registry);
+        this.loginThrottledByIpCounter = loginThrottledCounterForKeyBuilder(LOGIN_THROTTLED_IP).register(registry);
+        this.loginThrottledByLoginCounter = loginThrottledCounterForKeyBuilder(LOGIN_THROTTLED_LOGIN).register(registry);
+        this.apiRateLimitedCounter = apiLimitedCounterForReasonBuilder(API_LIMITED_RATE).register(registry);
+        this.apiConcurrencyLimitedCounter = apiLimitedCounterForReasonBuilder(API_LIMITED_CONCURRENCY).register(registry);
+        this.apiClientConcurrencyLimitedCounter = apiLimitedCounterForReasonBuilder(API_LIMITED_CLIENT_CONCURRENCY).register(registry);
     }
 
     private Counter.Builder invalidTokensCounterForCauseBuilder(String cause) {
@@ -34,6 +76,28 @@ public class SecurityMetersService {
             .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
     }
 
+    private Counter.Builder tokenCacheCounterForResultBuilder(String result) {
+        return Counter.builder(TOKEN_CACHE_METER_NAME).description(TOKEN_CACHE_METER_DESCRIPTION).tag(TOKEN_CACHE_METER_RESULT_DIMENSION, result);
+    }
+
+    private Counter.Builder tokenCacheEvictionsCounterForCauseBuilder(String cause) {
+        return Counter
+            .builder(TOKEN_CACHE_EVICTIONS_METER_NAME)
+            .description(TOKEN_CACHE_EVICTIONS_METER_DESCRIPTION)
+            .tag(INVALID_TOKENS_METER_CAUSE_DIMENSION, cause);
+    }
+
+    private Counter.Builder loginThrottledCounterForKeyBuilder(String key) {
+        return Counter
+            .builder(LOGIN_THROTTLED_METER_NAME)
+            .description(LOGIN_THROTTLED_METER_DESCRIPTION)
+            .tag(LOGIN_THROTTLED_METER_KEY_DIMENSION, key);
+    }
+
+    private Counter.Builder apiLimitedCounterForReasonBuilder(String reason) {
+        return Counter.builder(API_LIMITED_METER_NAME).description(API_LIMITED_METER_DESCRIPTION).tag(API_LIMITED_METER_REASON_DIMENSION, reason);
+    }
+
     public void trackTokenInvalidSignature() {
         this.tokenInvalidSignatureCounter.increment();
     }
@@ -49,4 +113,42 @@ public class SecurityMetersService {
     public void trackTokenMalformed() {
         this.tokenMalformedCounter.increment();
     }
+
+    public void trackTokenRevoked() {
+        this.tokenRevokedCounter.increment();
+    }
+
+    public void trackTokenCacheHit() {
+        this.tokenCacheHitCounter.increment();
+    }
+
+    public void trackTokenCacheMiss() {
+        this.tokenCacheMissCounter.increment();
+    }
+
+    public void trackTokenCacheEviction(String cause) {
+        if (TOKEN_CACHE_EVICTION_EXPIRED.equals(cause)) {
+            this.tokenCacheExpiredEvictionCounter.increment();
+        } else {
+            this.tokenCacheSizeEvictionCounter.increment();
+        }
+    }
+
+    public void trackLoginThrottled(String key) {
+        if (LOGIN_THROTTLED_IP.equals(key)) {
+            this.loginThrottledByIpCounter.increment();
+        } else {
+            this.loginThrottledByLoginCounter.increment();
+        }
+    }
+
+    public void trackApiLimited(String reason) {
+        if (API_LIMITED_RATE.equals(reason)) {
+            this.apiRateLimitedCounter.increment();
+        } else if (API_LIMITED_CONCURRENCY.equals(reason)) {
+            this.apiConcurrencyLimitedCounter.increment();
+        } else {
+            this.apiClientConcurrencyLimitedCounter.increment();
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.anywr.ahmedtest.management;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The SQL a request handled by the annotated controller method may run before {@link SqlBudgetFilter} reports it.
+ * Limits left to {@link #DEFAULT} use the {@code sqlBudget.statements} and {@code sqlBudget.rows} properties.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SqlBudget {
+    int DEFAULT = -1;
+
+    int UNLIMITED = Integer.MAX_VALUE;
+
+    /**
+     * @return the maximum number of executed statements, a batch counting as one.
+     */
+    int statements() default DEFAULT;
+
+    /**
+     * @return the maximum number of rows read.
+     */
+    int rows() default DEFAULT;
+}
@@ -0,0 +1,132 @@
+package com.anywr.ahmedtest.management;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records the SQL run by each request in a {@link SqlStatementLog}, and reports the requests exceeding the
+ * {@link SqlBudget} of their controller method, or the default budget: they are logged with the fingerprints of
+ * their statements and counted in the {@code sql.budget.exceeded} counter, tagged with the URI pattern, the method
+ * and the exceeded {@code budget}. Requests are not rejected.
+ */
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    public static final String METER_NAME = "sql.budget.exceeded";
+
+    private final Logger log = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final Budget defaultBudget;
+
+    private final Map<Method, Budget> budgets = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry     the registry of the counter.
+     * @param defaultStatements the statements a request may run when its controller method has no budget.
+     * @param defaultRows       the rows a request may read when its controller method has no budget.
+     */
+    public SqlBudgetFilter(MeterRegistry meterRegistry, int defaultStatements, int defaultRows) {
+        this.meterRegistry = meterRegistry;
+        this.defaultBudget = new Budget(defaultStatements, defaultRows);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        SqlStatementLog sql = SqlStatementLog.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            sql.close();
+            // the statements of a streamed response run on another thread
+            if (!request.isAsyncStarted()) {
+                check(sql, request);
+            }
+        }
+    }
+
+    private void check(SqlStatementLog sql, HttpServletRequest request) {
+        Budget budget = budget(request);
+        boolean statementsExceeded = sql.getStatements() > budget.statements;
+        boolean rowsExceeded = sql.getRows() > budget.rows;
+        if (!statementsExceeded && !rowsExceeded) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        if (statementsExceeded) {
+            counter(uri, request.getMethod(), "statements").increment();
+        }
+        if (rowsExceeded) {
+            counter(uri, request.getMethod(), "rows").increment();
+        }
+        log.warn(
+            "SQL budget exceeded by {} {}: {} statements (budget {}), {} rows (budget {}), {} ms{}",
+            request.getMethod(),
+            uri,
+            sql.getStatements(),
+            budget.statements,
+            sql.getRows(),
+            budget.rows,
+            TimeUnit.NANOSECONDS.toMillis(sql.getNanos()),
+            sql.describe()
+        );
+    }
+
+    private Budget budget(HttpServletRequest request) {
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (!(handler instanceof HandlerMethod)) {
+            return defaultBudget;
+        }
+        return budgets.computeIfAbsent(((HandlerMethod) handler).getMethod(), this::resolve);
+    }
+
+    private Budget resolve(Method method) {
+        SqlBudget annotation = AnnotatedElementUtils.findMergedAnnotation(method, SqlBudget.class);
+        if (annotation == null) {
+            return defaultBudget;
+        }
+        return new Budget(
+            annotation.statements() == SqlBudget.DEFAULT ? defaultBudget.statements : annotation.statements(),
+            annotation.rows() == SqlBudget.DEFAULT ? defaultBudget.rows : annotation.rows()
+        );
+    }
+
+    private Counter counter(String uri, String method, String budget) {
+        return Counter
+            .builder(METER_NAME)
+            .description("Requests that ran more SQL than their budget")
+            .tag("uri", uri)
+            .tag("method", method)
+            .tag("budget", budget)
+            .register(meterRegistry);
+    }
+
+    private static final class Budget {
+
+        private final int statements;
+
+        private final int rows;
+
+        private Budget(int statements, int rows) {
+            this.statements = statements;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.anywr.ahmedtest.management;
+
+import java.sql.ResultSet;
+import java.util.List;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the executed statements in the open {@link SqlStatementLog}s, and the rows read when result sets are
+ * proxied. Logs the statements slower than a threshold, with their fingerprint, whether or not a log is open.
+ */
+public class SqlBudgetListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private final Logger log = LoggerFactory.getLogger(SqlBudgetListener.class);
+
+    private final long slowStatementMillis;
+
+    public SqlBudgetListener(long slowStatementMillis) {
+        this.slowStatementMillis = slowStatementMillis;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatementLog.statementStarted();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // a batch holds the same statement repeated
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        SqlStatementLog.statementExecuted(sql);
+        if (execInfo.getElapsedTime() >= slowStatementMillis) {
+            log.warn("Slow SQL statement, {} ms: {}", execInfo.getElapsedTime(), SqlStatementLog.fingerprint(sql));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        // rows are counted once read
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (
+            executionContext.getTarget() instanceof ResultSet &&
+            "next".equals(executionContext.getMethod().getName()) &&
+            Boolean.TRUE.equals(executionContext.getResult())
+        ) {
+            SqlStatementLog.rowRead();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.anywr.ahmedtest.management;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The JDBC statements executed by the current thread while the log is open, counted with the rows they read.
+ * <p>
+ * Logs nest: a statement is counted in every open log of its thread, so that a test can record the statements of
+ * a request while {@link SqlBudgetFilter} records them too. Statements are grouped by their SQL, at most 50
+ * distinct ones, and only fingerprinted when the log is described.
+ */
+public final class SqlStatementLog implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementLog> CURRENT = new ThreadLocal<>();
+
+    private static final int MAX_DISTINCT_STATEMENTS = 50;
+
+    private static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // IN lists of any length, as Hibernate pads them to different sizes
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    private final SqlStatementLog parent;
+
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+
+    private int statements;
+
+    private long rows;
+
+    private long nanos;
+
+    private long statementStart;
+
+    private SqlStatementLog(SqlStatementLog parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Open a log for the current thread, to be closed by the same thread.
+     *
+     * @return the log.
+     */
+    public static SqlStatementLog open() {
+        SqlStatementLog log = new SqlStatementLog(CURRENT.get());
+        CURRENT.set(log);
+        return log;
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    static void statementStarted() {
+        SqlStatementLog log = CURRENT.get();
+        if (log != null) {
+            log.statementStart = System.nanoTime();
+        }
+    }
+
+    static void statementExecuted(String sql) {
+        SqlStatementLog log = CURRENT.get();
+        if (log == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - log.statementStart;
+        for (; log != null; log = log.parent) {
+            log.statements++;
+            log.nanos += elapsed;
+            String key = log.countsBySql.size() < MAX_DISTINCT_STATEMENTS || log.countsBySql.containsKey(sql) ? sql : OTHER_STATEMENTS;
+            log.countsBySql.merge(key, 1, Integer::sum);
+        }
+    }
+
+    static void rowRead() {
+        for (SqlStatementLog log = CURRENT.get(); log != null; log = log.parent) {
+            log.rows++;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the rows read from result sets, when they are counted.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the number of executions of each statement fingerprint, most executed first.
+     */
+    public Map<String, Integer> getFingerprints() {
+        Map<String, Integer> counts = new HashMap<>();
+        countsBySql.forEach((sql, count) -> counts.merge(fingerprint(sql), count, Integer::sum));
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        Map<String, Integer> fingerprints = new LinkedHashMap<>();
+        entries.forEach(entry -> fingerprints.put(entry.getKey(), entry.getValue()));
+        return fingerprints;
+    }
+
+    /**
+     * @return the executed statements, one fingerprint per line with its number of executions.
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder();
+        getFingerprints().forEach((fingerprint, count) -> description.append(String.format("%n  %d x %s", count, fingerprint)));
+        return description.toString();
+    }
+
+    /**
+     * Normalize a statement so that its executions with other literals or parameter list sizes match.
+     *
+     * @param sql the statement.
+     * @return its fingerprint.
+     */
+    public static String fingerprint(String sql) {
+        String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+        return PARAMETER_LIST.matcher(fingerprint).replaceAll("(?+)");
+    }
+}
@@ -0,0 +1,9 @@
+package com.anywr.ahmedtest.repository;
+
+import com.anywr.ahmedtest.domain.Authority;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Spring Data JPA repository for the {@link Authority} entity.
+ */
+public interface AuthorityRepository extends JpaRepository<Authority, String> {}
@@ -0,0 +1,37 @@
+package com.anywr.ahmedtest.repository;
+
+import com.anywr.ahmedtest.domain.RefreshToken;
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data JPA repository for the {@link RefreshToken} entity.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+	interface RefreshTokenOwner {
+		Long getId();
+
+		String getLogin();
+
+		Instant getExpiresAt();
+	}
+
+	@Query("SELECT r.id AS id, u.login AS login, r.expiresAt AS expiresAt FROM RefreshToken r JOIN r.user u WHERE r.tokenHash = :tokenHash")
+	Optional<RefreshTokenOwner> findOwnerByTokenHash(@Param("tokenHash") String tokenHash);
+
+	@Modifying
+	@Query("DELETE FROM RefreshToken r WHERE r.id = :id")
+	int deleteOne(@Param("id") Long id);
+
+	@Modifying
+	@Query("DELETE FROM RefreshToken r WHERE r.user.id IN (SELECT u.id FROM User u WHERE u.login = :login)")
+	int deleteByLogin(@Param("login") String login);
+
+	@Modifying
+	@Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now AND r.user.id IN (SELECT u.id FROM User u WHERE u.login = :login)")
+	int deleteExpiredByLogin(@Param("login") String login, @Param("now") Instant now);
+}
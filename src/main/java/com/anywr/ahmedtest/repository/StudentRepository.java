@@ -1,11 +1,15 @@
 package com.anywr.ahmedtest.repository;
 
 import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.service.dto.StudentDTO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,11 +20,50 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface StudentRepository extends JpaRepository<Student, Long> {
-	@Query("SELECT s FROM Student s JOIN s.studyClass sc JOIN sc.teacher t WHERE sc.name = :studyClassName AND CONCAT(t.firstName, ' ', t.lastName) = :teacherFullName")
-	Page<Student> findByStudyClassNameAndTeacherFullName(@Param("studyClassName") String studyClassName,
-			@Param("teacherFullName") String teacherFullName, Pageable pageable);
-	
-	Page<Student> findByStudyClassName(@Param("studyClassName") String studyClassName, Pageable pageable);
-	@Query("SELECT s FROM Student s JOIN s.studyClass sc JOIN sc.teacher t WHERE CONCAT(t.firstName, ' ', t.lastName) = :teacherFullName")
-	Page<Student> findByTeacherFullName(@Param("teacherFullName") String teacherFullName, Pageable pageable);
+	String SELECT_DTO = "SELECT new com.anywr.ahmedtest.service.dto.StudentDTO(s.id, s.firstName, s.lastName, sc.id, sc.name)"
+			+ " FROM Student s JOIN s.studyClass sc";
+
+	String SELECT_VERSIONED_DTO = "SELECT new com.anywr.ahmedtest.service.dto.StudentDTO(s.id, s.firstName, s.lastName, sc.id, sc.name, s.version, sc.version)"
+			+ " FROM Student s JOIN s.studyClass sc";
+
+	String AFTER = " s.lastName >= :lastName AND (s.lastName > :lastName OR s.id > :id) ORDER BY s.lastName, s.id";
+
+	long countByStudyClassIdIn(Collection<Long> studyClassIds);
+
+	@Query("SELECT s.id FROM Student s WHERE s.id IN :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	@Modifying
+	@Query("DELETE FROM Student s WHERE s.id IN :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query(SELECT_VERSIONED_DTO + " WHERE s.id = :id")
+	Optional<StudentDTO> findDTOById(@Param("id") Long id);
+
+	@Query(value = SELECT_DTO, countQuery = "SELECT COUNT(s) FROM Student s")
+	Page<StudentDTO> findAllDTOs(Pageable pageable);
+
+	@Query(value = SELECT_DTO + " WHERE sc.id IN :studyClassIds",
+			countQuery = "SELECT COUNT(s) FROM Student s WHERE s.studyClass.id IN :studyClassIds")
+	Page<StudentDTO> findDTOsByStudyClassIdIn(@Param("studyClassIds") Collection<Long> studyClassIds, Pageable pageable);
+
+	@Query(SELECT_DTO)
+	Slice<StudentDTO> findDTOSlice(Pageable pageable);
+
+	@Query(SELECT_DTO + " WHERE sc.id IN :studyClassIds")
+	Slice<StudentDTO> findDTOSliceByStudyClassIdIn(@Param("studyClassIds") Collection<Long> studyClassIds, Pageable pageable);
+
+	@Query(SELECT_DTO + " ORDER BY s.lastName, s.id")
+	Slice<StudentDTO> findFirstDTOKeyset(Pageable pageable);
+
+	@Query(SELECT_DTO + " WHERE" + AFTER)
+	Slice<StudentDTO> findDTOKeysetAfter(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
+
+	@Query(SELECT_DTO + " WHERE sc.id IN :studyClassIds ORDER BY s.lastName, s.id")
+	Slice<StudentDTO> findFirstDTOKeysetByStudyClassIdIn(@Param("studyClassIds") Collection<Long> studyClassIds,
+			Pageable pageable);
+
+	@Query(SELECT_DTO + " WHERE sc.id IN :studyClassIds AND" + AFTER)
+	Slice<StudentDTO> findDTOKeysetByStudyClassIdInAfter(@Param("studyClassIds") Collection<Long> studyClassIds,
+			@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
 }
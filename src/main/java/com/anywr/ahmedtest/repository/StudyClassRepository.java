@@ -1,7 +1,17 @@
 package com.anywr.ahmedtest.repository;
 
 import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.service.dto.StudyClassDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +19,34 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface StudyClassRepository extends JpaRepository<StudyClass, Long> {}
+public interface StudyClassRepository extends JpaRepository<StudyClass, Long> {
+	String SELECT_DTO = "SELECT new com.anywr.ahmedtest.service.dto.StudyClassDTO(sc.id, sc.name, t.id, t.firstName, t.lastName)"
+			+ " FROM StudyClass sc LEFT JOIN sc.teacher t";
+
+	String SELECT_VERSIONED_DTO = "SELECT new com.anywr.ahmedtest.service.dto.StudyClassDTO(sc.id, sc.name, t.id, t.firstName, t.lastName, sc.version, t.version)"
+			+ " FROM StudyClass sc LEFT JOIN sc.teacher t";
+
+	@Query("SELECT sc.id FROM StudyClass sc WHERE sc.name = :name")
+	List<Long> findIdsByName(@Param("name") String name);
+
+	@Query("SELECT sc.id FROM StudyClass sc WHERE sc.id IN :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	@Query("SELECT new com.anywr.ahmedtest.service.dto.StudyClassDTO(sc.id, sc.name) FROM StudyClass sc")
+	List<StudyClassDTO> findAllIdsAndNames();
+
+	@Query(SELECT_VERSIONED_DTO + " WHERE sc.id = :id")
+	Optional<StudyClassDTO> findDTOById(@Param("id") Long id);
+
+	@Query(value = SELECT_DTO, countQuery = "SELECT COUNT(sc) FROM StudyClass sc")
+	Page<StudyClassDTO> findAllDTOs(Pageable pageable);
+
+	@Query(SELECT_DTO)
+	Slice<StudyClassDTO> findDTOSlice(Pageable pageable);
+
+	@Query(SELECT_DTO + " ORDER BY sc.name, sc.id")
+	Slice<StudyClassDTO> findFirstDTOKeyset(Pageable pageable);
+
+	@Query(SELECT_DTO + " WHERE sc.name >= :name AND (sc.name > :name OR sc.id > :id) ORDER BY sc.name, sc.id")
+	Slice<StudyClassDTO> findDTOKeysetAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+}
@@ -1,10 +1,18 @@
 package com.anywr.ahmedtest.repository;
 
 import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.service.dto.TeacherDTO;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import javax.persistence.QueryHint;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -13,5 +21,47 @@ import org.springframework.stereotype.Repository;
 @SuppressWarnings("unused")
 @Repository
 public interface TeacherRepository extends JpaRepository<Teacher, Long> {
+	String SELECT_DTO = "SELECT new com.anywr.ahmedtest.service.dto.TeacherDTO(t.id, t.firstName, t.lastName, sc.id, sc.name)"
+			+ " FROM Teacher t JOIN t.studyClass sc";
+
+	String SELECT_VERSIONED_DTO = "SELECT new com.anywr.ahmedtest.service.dto.TeacherDTO(t.id, t.firstName, t.lastName, sc.id, sc.name, t.version, sc.version)"
+			+ " FROM Teacher t JOIN t.studyClass sc";
+
+	String STUDY_CLASS_QUERY_CACHE = "com.anywr.ahmedtest.repository.TeacherRepository.findOneByStudyClassId";
+
+	@QueryHints({ @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+			@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = STUDY_CLASS_QUERY_CACHE) })
 	Optional<Teacher> findOneByStudyClassId(Long Id);
+
+	@Query("SELECT t.id FROM Teacher t WHERE t.id IN :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	@Query("SELECT t.studyClass.id FROM Teacher t WHERE t.studyClass.id IN :studyClassIds")
+	List<Long> findTakenStudyClassIds(@Param("studyClassIds") Collection<Long> studyClassIds);
+
+	@Modifying
+	@Query("DELETE FROM Teacher t WHERE t.id IN :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("SELECT t.studyClass.id FROM Teacher t WHERE t.fullName = :fullName")
+	List<Long> findStudyClassIdsByFullName(@Param("fullName") String fullName);
+
+	@Query("SELECT sc.id FROM Teacher t JOIN t.studyClass sc WHERE t.fullName = :fullName AND sc.name = :studyClassName")
+	List<Long> findStudyClassIdsByFullNameAndStudyClassName(@Param("fullName") String fullName,
+			@Param("studyClassName") String studyClassName);
+
+	@Query(SELECT_VERSIONED_DTO + " WHERE t.id = :id")
+	Optional<TeacherDTO> findDTOById(@Param("id") Long id);
+
+	@Query(value = SELECT_DTO, countQuery = "SELECT COUNT(t) FROM Teacher t")
+	Page<TeacherDTO> findAllDTOs(Pageable pageable);
+
+	@Query(SELECT_DTO)
+	Slice<TeacherDTO> findDTOSlice(Pageable pageable);
+
+	@Query(SELECT_DTO + " ORDER BY t.lastName, t.id")
+	Slice<TeacherDTO> findFirstDTOKeyset(Pageable pageable);
+
+	@Query(SELECT_DTO + " WHERE t.lastName >= :lastName AND (t.lastName > :lastName OR t.id > :id) ORDER BY t.lastName, t.id")
+	Slice<TeacherDTO> findDTOKeysetAfter(@Param("lastName") String lastName, @Param("id") Long id, Pageable pageable);
 }
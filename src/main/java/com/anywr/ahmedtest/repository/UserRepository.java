@@ -2,7 +2,11 @@ package com.anywr.ahmedtest.repository;
 
 import com.anywr.ahmedtest.domain.User;
 import java.util.Optional;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -11,4 +15,11 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findOneByLogin(String login);
+
+    @EntityGraph(attributePaths = "authorities")
+    Optional<User> findOneWithAuthoritiesByLogin(String login);
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.login = :login")
+    int updatePasswordByLogin(@Param("login") String login, @Param("password") String password);
 }
@@ -0,0 +1,164 @@
+package com.anywr.ahmedtest.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * A limit of the requests in flight that adapts to the observed latency (additive increase, multiplicative
+ * decrease): it grows by one for each request answered in time while at least half of the limit was in use, and
+ * shrinks by the backoff ratio when a request is answered too slowly or with a server error. It shrinks at most
+ * once per backoff interval, so that a burst of slow responses, all caused by the same overload, counts once.
+ * <p>
+ * A client may only use a share of the limit, so that one client can't starve the others.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    public static final String LIMIT_METER_NAME = "security.api.concurrency.limit";
+
+    public static final String IN_FLIGHT_METER_NAME = "security.api.concurrency.in-flight";
+
+    /**
+     * Why a request was not admitted.
+     */
+    public enum Rejection {
+        /**
+         * All the instance's capacity is in use.
+         */
+        GLOBAL,
+        /**
+         * The client uses all of its share.
+         */
+        CLIENT,
+    }
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final ConcurrentMap<String, AtomicInteger> inFlightByClient = new ConcurrentHashMap<>();
+
+    private volatile double limit;
+
+    private volatile int minLimit;
+
+    private volatile int maxLimit;
+
+    private volatile long latencyThresholdNanos;
+
+    private volatile double backoffRatio;
+
+    private volatile double perClientShare;
+
+    private long backoffIntervalNanos;
+
+    private long lastBackoffNanos;
+
+    private boolean backedOff;
+
+    private final LongSupplier nanoTime;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, MeterRegistry meterRegistry) {
+        this(initialLimit, meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimit(int initialLimit, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        this.limit = initialLimit;
+        this.minLimit = 1;
+        this.maxLimit = Math.max(1, initialLimit);
+        this.backoffRatio = 0.9;
+        this.perClientShare = 1;
+        Gauge.builder(LIMIT_METER_NAME, this, AdaptiveConcurrencyLimit::getLimit)
+            .description("Indicates the adaptive limit of the API requests in flight.")
+            .register(meterRegistry);
+        Gauge.builder(IN_FLIGHT_METER_NAME, inFlight, AtomicInteger::get)
+            .description("Indicates the API requests in flight.")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Change the bounds and tuning of the limit, the current limit is kept within the new bounds.
+     */
+    public synchronized void configure(
+        int minLimit,
+        int maxLimit,
+        long latencyThresholdMillis,
+        double backoffRatio,
+        long backoffIntervalMillis,
+        double perClientShare
+    ) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = latencyThresholdMillis * 1_000_000;
+        this.backoffRatio = backoffRatio;
+        this.backoffIntervalNanos = backoffIntervalMillis * 1_000_000;
+        this.perClientShare = perClientShare;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, limit));
+    }
+
+    /**
+     * Admit a request of a client. An admitted request must be {@linkplain #release released}.
+     *
+     * @param client the key of the client.
+     * @return {@code null} if the request is admitted, otherwise why it is not.
+     */
+    public Rejection tryAcquire(String client) {
+        int currentLimit = getLimit();
+        if (inFlight.incrementAndGet() > currentLimit) {
+            inFlight.decrementAndGet();
+            return Rejection.GLOBAL;
+        }
+        int clientLimit = Math.max(1, (int) Math.ceil(currentLimit * perClientShare));
+        AtomicInteger clientInFlight = inFlightByClient.compute(
+            client,
+            (key, count) -> {
+                AtomicInteger result = count != null ? count : new AtomicInteger();
+                result.incrementAndGet();
+                return result;
+            }
+        );
+        if (clientInFlight.get() > clientLimit) {
+            releaseClient(client);
+            inFlight.decrementAndGet();
+            return Rejection.CLIENT;
+        }
+        return null;
+    }
+
+    /**
+     * Release an admitted request, and adapt the limit to how it went.
+     *
+     * @param client the key of the client.
+     * @param latencyNanos how long the request took, or a negative value if it should not be sampled.
+     * @param serverError whether the request failed on the server side.
+     */
+    public void release(String client, long latencyNanos, boolean serverError) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        releaseClient(client);
+        if (latencyNanos < 0) {
+            return;
+        }
+        synchronized (this) {
+            if (serverError || latencyNanos > latencyThresholdNanos) {
+                long now = nanoTime.getAsLong();
+                if (!backedOff || now - lastBackoffNanos >= backoffIntervalNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastBackoffNanos = now;
+                    backedOff = true;
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    private void releaseClient(String client) {
+        inFlightByClient.computeIfPresent(client, (key, count) -> count.decrementAndGet() == 0 ? null : count);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+}
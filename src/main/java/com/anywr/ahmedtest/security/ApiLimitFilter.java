@@ -0,0 +1,108 @@
+package com.anywr.ahmedtest.security;
+
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import java.io.IOException;
+import java.time.Clock;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits the {@code /api/**} requests of each client, identified by its login once the JWT is verified or by its IP
+ * otherwise.
+ * <p>
+ * A client may make {@code api.rateLimit.perMinute} requests per minute, with bursts of {@code api.rateLimit.burst};
+ * the state of its bucket is sent in the {@code RateLimit-Limit}, {@code RateLimit-Remaining} and
+ * {@code RateLimit-Reset} headers and excess requests are answered with {@code 429 (Too Many Requests)}. The
+ * requests in flight are bounded by an {@link AdaptiveConcurrencyLimit}: requests over it are answered with
+ * {@code 503 (Service Unavailable)}, or {@code 429} when the client alone uses its whole share.
+ */
+public class ApiLimitFilter extends OncePerRequestFilter {
+
+    public static final String RATE_LIMIT_LIMIT_HEADER = "RateLimit-Limit";
+
+    public static final String RATE_LIMIT_REMAINING_HEADER = "RateLimit-Remaining";
+
+    public static final String RATE_LIMIT_RESET_HEADER = "RateLimit-Reset";
+
+    private final ApiLimits apiLimits;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final Clock clock = Clock.systemUTC();
+
+    public ApiLimitFilter(ApiLimits apiLimits, SecurityMetersService securityMetersService) {
+        this.apiLimits = apiLimits;
+        this.securityMetersService = securityMetersService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getServletPath().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        ApiLimits.Settings settings = apiLimits.current(clock.millis());
+        String client = SecurityUtils.getCurrentUserLogin().map(login -> "user:" + login).orElseGet(() -> "ip:" + request.getRemoteAddr());
+
+        if (settings.isRateLimitEnabled()) {
+            TokenBucketTable buckets = settings.getBuckets();
+            TokenBucketTable.Acquisition acquisition = buckets.acquire(client, clock.millis());
+            response.setIntHeader(RATE_LIMIT_LIMIT_HEADER, buckets.getCapacity());
+            response.setIntHeader(RATE_LIMIT_REMAINING_HEADER, acquisition.getRemaining());
+            response.setHeader(RATE_LIMIT_RESET_HEADER, String.valueOf(toSeconds(acquisition.getFullInMillis())));
+            if (!acquisition.isAcquired()) {
+                securityMetersService.trackApiLimited(SecurityMetersService.API_LIMITED_RATE);
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, toSeconds(acquisition.getWaitMillis()), "Too many requests, retry later");
+                return;
+            }
+        }
+
+        if (!settings.isConcurrencyEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimit concurrencyLimit = apiLimits.getConcurrencyLimit();
+        AdaptiveConcurrencyLimit.Rejection rejection = concurrencyLimit.tryAcquire(client);
+        if (rejection == AdaptiveConcurrencyLimit.Rejection.GLOBAL) {
+            securityMetersService.trackApiLimited(SecurityMetersService.API_LIMITED_CONCURRENCY);
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1, "Too many concurrent requests, retry later");
+            return;
+        }
+        if (rejection == AdaptiveConcurrencyLimit.Rejection.CLIENT) {
+            securityMetersService.trackApiLimited(SecurityMetersService.API_LIMITED_CLIENT_CONCURRENCY);
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, 1, "Too many concurrent requests, retry later");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean serverError = true;
+        try {
+            filterChain.doFilter(request, response);
+            serverError = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            // a streamed response outlives this call and a long-running request is slow by nature, their latency
+            // says nothing about the load
+            boolean sampled = !request.isAsyncStarted() && settings.isLatencySampled(request.getServletPath());
+            long latencyNanos = sampled ? System.nanoTime() - start : -1;
+            concurrencyLimit.release(client, latencyNanos, serverError);
+        }
+    }
+
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+}
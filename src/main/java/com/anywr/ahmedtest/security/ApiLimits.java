@@ -0,0 +1,197 @@
+package com.anywr.ahmedtest.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * The rate and concurrency limits of the API, see {@link ApiLimitFilter}.
+ * <p>
+ * The limits are read from the {@code api.rateLimit.*} and {@code api.concurrency.*} properties. When
+ * {@code api.limits.file} names a properties file, its values take precedence and the file is reloaded when it
+ * changes, checked at most every {@code api.limits.reloadIntervalSeconds}, so that the limits can be tuned
+ * without a restart. The requests matching {@code api.concurrency.unsampledPaths}, comma separated Ant patterns,
+ * count in flight but their latency doesn't adapt the concurrency limit.
+ */
+@Component
+public class ApiLimits {
+
+    private final Logger log = LoggerFactory.getLogger(ApiLimits.class);
+
+    private final Environment environment;
+
+    private final Path file;
+
+    private final long reloadIntervalMillis;
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+    private volatile Settings settings;
+
+    private volatile long nextCheckMillis;
+
+    private long fileLastModified = -1;
+
+    public ApiLimits(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        String fileName = environment.getProperty("api.limits.file");
+        this.file = StringUtils.hasText(fileName) ? Paths.get(fileName) : null;
+        this.reloadIntervalMillis = environment.getProperty("api.limits.reloadIntervalSeconds", Long.class, 10L) * 1000;
+        this.concurrencyLimit =
+            new AdaptiveConcurrencyLimit(environment.getProperty("api.concurrency.initialLimit", Integer.class, 20), meterRegistry);
+        this.settings = load(readFile(), null);
+    }
+
+    /**
+     * Get the current limits, reloading them if their file changed.
+     *
+     * @param nowMillis the current time.
+     * @return the current limits.
+     */
+    public Settings current(long nowMillis) {
+        if (file != null && nowMillis >= nextCheckMillis) {
+            reloadIfChanged(nowMillis);
+        }
+        return settings;
+    }
+
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    private synchronized void reloadIfChanged(long nowMillis) {
+        if (nowMillis < nextCheckMillis) {
+            return;
+        }
+        nextCheckMillis = nowMillis + reloadIntervalMillis;
+        long lastModified;
+        try {
+            lastModified = Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            lastModified = -1;
+        }
+        if (lastModified != fileLastModified) {
+            try {
+                settings = load(readFile(), settings);
+                log.info("Reloaded the API limits from {}: {}", file, settings);
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid API limits in {}, keeping the current ones: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private Properties readFile() {
+        Properties properties = new Properties();
+        if (file == null) {
+            return properties;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            fileLastModified = Files.getLastModifiedTime(file).toMillis();
+            properties.load(in);
+        } catch (IOException e) {
+            fileLastModified = -1;
+            log.warn("Cannot read the API limits from {}, using the application properties: {}", file, e.getMessage());
+        }
+        return properties;
+    }
+
+    private Settings load(Properties overrides, Settings previous) {
+        Settings loaded = new Settings();
+        loaded.rateLimitEnabled = Boolean.parseBoolean(property(overrides, "api.rateLimit.enabled", "true"));
+        loaded.perMinute = Integer.parseInt(property(overrides, "api.rateLimit.perMinute", "600"));
+        loaded.burst = Integer.parseInt(property(overrides, "api.rateLimit.burst", "100"));
+        loaded.concurrencyEnabled = Boolean.parseBoolean(property(overrides, "api.concurrency.enabled", "true"));
+        String unsampledPaths = StringUtils.trimAllWhitespace(property(overrides, "api.concurrency.unsampledPaths", ""));
+        loaded.unsampledPaths = List.of(StringUtils.commaDelimitedListToStringArray(unsampledPaths));
+        // the buckets are kept as long as the rate doesn't change
+        if (previous != null && previous.perMinute == loaded.perMinute && previous.burst == loaded.burst) {
+            loaded.buckets = previous.buckets;
+        } else {
+            int maxKeys = environment.getProperty("api.rateLimit.maxKeys", Integer.class, 100_000);
+            loaded.buckets = new TokenBucketTable(loaded.burst, loaded.perMinute, maxKeys);
+        }
+        concurrencyLimit.configure(
+            Integer.parseInt(property(overrides, "api.concurrency.minLimit", "5")),
+            Integer.parseInt(property(overrides, "api.concurrency.maxLimit", "200")),
+            Long.parseLong(property(overrides, "api.concurrency.latencyThresholdMillis", "500")),
+            Double.parseDouble(property(overrides, "api.concurrency.backoffRatio", "0.9")),
+            Long.parseLong(property(overrides, "api.concurrency.backoffIntervalMillis", "1000")),
+            Double.parseDouble(property(overrides, "api.concurrency.perClientShare", "0.5"))
+        );
+        return loaded;
+    }
+
+    private String property(Properties overrides, String key, String defaultValue) {
+        String value = overrides.getProperty(key);
+        return value != null ? value.trim() : environment.getProperty(key, defaultValue);
+    }
+
+    /**
+     * The limits in force at a given time.
+     */
+    public static final class Settings {
+
+        private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+        private boolean rateLimitEnabled;
+
+        private int perMinute;
+
+        private int burst;
+
+        private boolean concurrencyEnabled;
+
+        private TokenBucketTable buckets;
+
+        private List<String> unsampledPaths;
+
+        public boolean isRateLimitEnabled() {
+            return rateLimitEnabled;
+        }
+
+        public boolean isConcurrencyEnabled() {
+            return concurrencyEnabled;
+        }
+
+        public TokenBucketTable getBuckets() {
+            return buckets;
+        }
+
+        /**
+         * @param path the servlet path of a request.
+         * @return whether the latency of the request must not adapt the concurrency limit: long-running requests,
+         * e.g. imports, are slow by nature rather than because of the load.
+         */
+        public boolean isLatencySampled(String path) {
+            for (String pattern : unsampledPaths) {
+                if (PATH_MATCHER.match(pattern, path)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Settings{" +
+                "rateLimitEnabled=" + rateLimitEnabled +
+                ", perMinute=" + perMinute +
+                ", burst=" + burst +
+                ", concurrencyEnabled=" + concurrencyEnabled +
+                ", unsampledPaths=" + unsampledPaths +
+                "}";
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.anywr.ahmedtest.security;
+
+/**
+ * Constants for Spring Security authorities.
+ */
+public final class AuthoritiesConstants {
+
+    public static final String ADMIN = "ROLE_ADMIN";
+
+    public static final String USER = "ROLE_USER";
+
+    private AuthoritiesConstants() {}
+}
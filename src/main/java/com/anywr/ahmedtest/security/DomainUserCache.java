@@ -0,0 +1,74 @@
+package com.anywr.ahmedtest.security;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * A bounded, time limited cache of the users loaded at login, so that repeated logins of the same user
+ * don't query the database. Entries are removed when the user registers or its password changes.
+ */
+@Component
+public class DomainUserCache implements UserCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    private final long timeToLiveMillis;
+
+    private final Clock clock = Clock.systemUTC();
+
+    public DomainUserCache(Environment environment) {
+        this.maxSize = environment.getProperty("security.userCache.maxSize", Integer.class, 10000);
+        this.timeToLiveMillis = 1000L * environment.getProperty("security.userCache.timeToLiveSeconds", Integer.class, 300);
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= clock.millis()) {
+            entries.remove(username, entry);
+            return null;
+        }
+        return entry.user;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (maxSize <= 0) {
+            return;
+        }
+        entries.put(user.getUsername(), new Entry(user, clock.millis() + timeToLiveMillis));
+        Iterator<String> iterator = entries.keySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        entries.remove(username);
+    }
+
+    private static final class Entry {
+
+        private final UserDetails user;
+
+        private final long expiresAt;
+
+        private Entry(UserDetails user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
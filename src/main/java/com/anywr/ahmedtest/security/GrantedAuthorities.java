@@ -0,0 +1,66 @@
+package com.anywr.ahmedtest.security;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Shared {@link GrantedAuthority} instances, so that building the authentication of a request allocates nothing
+ * for its authorities. There are few authorities and few combinations of them, both are kept for the life of the
+ * application, up to a bound in case of unexpected values.
+ */
+public final class GrantedAuthorities {
+
+    private static final int MAX_SIZE = 1024;
+
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private static final Map<String, List<GrantedAuthority>> CLAIMS = new ConcurrentHashMap<>();
+
+    static {
+        of(AuthoritiesConstants.ADMIN);
+        of(AuthoritiesConstants.USER);
+    }
+
+    private GrantedAuthorities() {}
+
+    /**
+     * @param name the authority name.
+     * @return the shared authority of this name.
+     */
+    public static GrantedAuthority of(String name) {
+        GrantedAuthority authority = AUTHORITIES.get(name);
+        if (authority != null) {
+            return authority;
+        }
+        if (AUTHORITIES.size() >= MAX_SIZE) {
+            return new SimpleGrantedAuthority(name);
+        }
+        return AUTHORITIES.computeIfAbsent(name, SimpleGrantedAuthority::new);
+    }
+
+    /**
+     * @param claim comma separated authority names, as in the {@code auth} claim of the tokens.
+     * @return the shared, unmodifiable list of these authorities.
+     */
+    public static List<GrantedAuthority> fromClaim(String claim) {
+        List<GrantedAuthority> authorities = CLAIMS.get(claim);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities =
+            Arrays
+                .stream(claim.split(","))
+                .filter(name -> !name.trim().isEmpty())
+                .map(GrantedAuthorities::of)
+                .collect(Collectors.toUnmodifiableList());
+        if (CLAIMS.size() < MAX_SIZE) {
+            CLAIMS.putIfAbsent(claim, authorities);
+        }
+        return authorities;
+    }
+}
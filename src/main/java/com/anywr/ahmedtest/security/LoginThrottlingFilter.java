@@ -0,0 +1,195 @@
+package com.anywr.ahmedtest.security;
+
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Locale;
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Limits the login and registration attempts per client IP and per login, before any password is hashed.
+ * <p>
+ * Each attempt takes a token from the bucket of its IP, then from the bucket of the login found in its JSON body,
+ * which is buffered and replayed to the controller; bodies over 8 KB are rejected. When either bucket is empty
+ * the request is answered with {@code 429 (Too Many Requests)} and a {@code Retry-After} header. The IP is the
+ * remote address of the request, which Tomcat resolves from {@code X-Forwarded-For} for requests from the trusted
+ * proxies of {@code server.tomcat.remoteip.internal-proxies}.
+ */
+public class LoginThrottlingFilter extends OncePerRequestFilter {
+
+    // login and registration bodies are small, larger ones are rejected rather than buffered
+    private static final int MAX_BODY = 8192;
+
+    private final TokenBucketTable ipBuckets;
+
+    private final TokenBucketTable loginBuckets;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final ObjectMapper objectMapper;
+
+    private final Clock clock;
+
+    public LoginThrottlingFilter(
+        TokenBucketTable ipBuckets,
+        TokenBucketTable loginBuckets,
+        SecurityMetersService securityMetersService,
+        ObjectMapper objectMapper
+    ) {
+        this(ipBuckets, loginBuckets, securityMetersService, objectMapper, Clock.systemUTC());
+    }
+
+    LoginThrottlingFilter(
+        TokenBucketTable ipBuckets,
+        TokenBucketTable loginBuckets,
+        SecurityMetersService securityMetersService,
+        ObjectMapper objectMapper,
+        Clock clock
+    ) {
+        this.ipBuckets = ipBuckets;
+        this.loginBuckets = loginBuckets;
+        this.securityMetersService = securityMetersService;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return !"/api/authenticate".equals(path) && !"/api/register".equals(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        long now = clock.millis();
+        long retryAfterMillis = ipBuckets.tryAcquire(request.getRemoteAddr(), now);
+        if (retryAfterMillis > 0) {
+            securityMetersService.trackLoginThrottled(SecurityMetersService.LOGIN_THROTTLED_IP);
+            reject(response, retryAfterMillis);
+            return;
+        }
+
+        byte[] body = request.getInputStream().readNBytes(MAX_BODY + 1);
+        if (body.length > MAX_BODY) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+        String login = readLogin(body);
+        if (login != null) {
+            retryAfterMillis = loginBuckets.tryAcquire(login, now);
+            if (retryAfterMillis > 0) {
+                securityMetersService.trackLoginThrottled(SecurityMetersService.LOGIN_THROTTLED_LOGIN);
+                reject(response, retryAfterMillis);
+                return;
+            }
+        }
+        filterChain.doFilter(new ReplayedBodyRequest(request, body), response);
+    }
+
+    private String readLogin(byte[] body) {
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            JsonNode login = json != null ? (json.hasNonNull("username") ? json.get("username") : json.get("login")) : null;
+            return login != null && login.isTextual() ? login.asText().toLowerCase(Locale.ENGLISH) : null;
+        } catch (IOException e) {
+            // left to the controller to reject
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterMillis) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000)));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write("Too many login attempts, retry later");
+    }
+
+    /**
+     * The request, with its body read back from memory.
+     */
+    private static final class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private ReplayedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ReplayedInputStream(body);
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * A body held in memory: it is always ready, and a read listener is told at once that all of it can be read.
+     */
+    private static final class ReplayedInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream body;
+
+        private ReplayedInputStream(byte[] body) {
+            this.body = new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public int read() {
+            return body.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return body.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return body.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            try {
+                if (!isFinished()) {
+                    readListener.onDataAvailable();
+                }
+                readListener.onAllDataRead();
+            } catch (IOException e) {
+                readListener.onError(e);
+            }
+        }
+    }
+}
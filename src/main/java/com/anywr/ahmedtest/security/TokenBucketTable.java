@@ -0,0 +1,223 @@
+package com.anywr.ahmedtest.security;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token buckets by key, e.g. one per client IP, refilled continuously up to their capacity.
+ * <p>
+ * The table is split in lock-striped segments so that concurrent requests for different keys rarely contend. A
+ * bucket that was not used for the time it takes to refill completely is equivalent to a new one, so it is
+ * dropped: each segment keeps its buckets on a hashed timing wheel of one second ticks and drops them when their
+ * tick comes. The memory used is bounded by the keys seen during the refill time, and by {@code maxKeys}: once a
+ * segment is full, a new key evicts the least recently used bucket of the segment, the one closest to full. New
+ * keys are never let through unlimited, so flooding the table with distinct keys doesn't lift the limits.
+ */
+public class TokenBucketTable {
+
+    private static final int SEGMENTS = 64;
+
+    private static final int WHEEL_SLOTS = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    private final double capacity;
+
+    private final double refillPerMillis;
+
+    private final long idleTicks;
+
+    private final int maxKeysPerSegment;
+
+    /**
+     * @param capacity the maximum number of tokens of a bucket, i.e. the allowed burst.
+     * @param refillPerMinute the number of tokens added to a bucket per minute.
+     * @param maxKeys the maximum number of buckets, beyond it the least recently used ones are evicted.
+     */
+    public TokenBucketTable(int capacity, int refillPerMinute, int maxKeys) {
+        this.capacity = capacity;
+        this.refillPerMillis = refillPerMinute / 60_000d;
+        this.idleTicks = (long) Math.ceil(capacity / (refillPerMillis * 1000));
+        this.maxKeysPerSegment = Math.max(1, maxKeys / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Take a token from the bucket of a key.
+     *
+     * @param key the key.
+     * @param nowMillis the current time.
+     * @return {@code 0} if a token was taken, otherwise the number of milliseconds until one is available.
+     */
+    public long tryAcquire(String key, long nowMillis) {
+        return acquire(key, nowMillis).getWaitMillis();
+    }
+
+    /**
+     * Take a token from the bucket of a key, and tell what is left in the bucket.
+     *
+     * @param key the key.
+     * @param nowMillis the current time.
+     * @return the outcome, with the state of the bucket after it.
+     */
+    public Acquisition acquire(String key, long nowMillis) {
+        Segment segment = segments[(key.hashCode() ^ (key.hashCode() >>> 16)) & (SEGMENTS - 1)];
+        synchronized (segment) {
+            long nowTick = nowMillis / 1000;
+            segment.advance(nowTick);
+            Bucket bucket = segment.buckets.get(key);
+            if (bucket == null) {
+                if (segment.buckets.size() >= maxKeysPerSegment) {
+                    segment.evictLeastRecentlyUsed();
+                }
+                bucket = new Bucket(capacity, nowMillis);
+                segment.buckets.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (nowMillis - bucket.lastRefill) * refillPerMillis);
+                bucket.lastRefill = nowMillis;
+            }
+            bucket.expiresAtTick = nowTick + idleTicks;
+            if (!bucket.scheduled) {
+                segment.schedule(key, bucket);
+            }
+            long waitMillis = 0;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+            } else {
+                waitMillis = (long) Math.ceil((1 - bucket.tokens) / refillPerMillis);
+            }
+            return new Acquisition(waitMillis, (int) bucket.tokens, (long) Math.ceil((capacity - bucket.tokens) / refillPerMillis));
+        }
+    }
+
+    public int getCapacity() {
+        return (int) capacity;
+    }
+
+    /**
+     * The outcome of taking a token from a bucket.
+     */
+    public static final class Acquisition {
+
+        private final long waitMillis;
+
+        private final int remaining;
+
+        private final long fullInMillis;
+
+        private Acquisition(long waitMillis, int remaining, long fullInMillis) {
+            this.waitMillis = waitMillis;
+            this.remaining = remaining;
+            this.fullInMillis = fullInMillis;
+        }
+
+        public boolean isAcquired() {
+            return waitMillis == 0;
+        }
+
+        /**
+         * @return {@code 0} if a token was taken, otherwise the number of milliseconds until one is available.
+         */
+        public long getWaitMillis() {
+            return waitMillis;
+        }
+
+        /**
+         * @return the number of whole tokens left in the bucket.
+         */
+        public int getRemaining() {
+            return remaining;
+        }
+
+        /**
+         * @return the number of milliseconds until the bucket is full again.
+         */
+        public long getFullInMillis() {
+            return fullInMillis;
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+
+        private long lastRefill;
+
+        private long expiresAtTick;
+
+        private boolean scheduled;
+
+        private Bucket(double tokens, long lastRefill) {
+            this.tokens = tokens;
+            this.lastRefill = lastRefill;
+        }
+    }
+
+    private static final class Segment {
+
+        // in access order, the least recently used bucket first
+        private final Map<String, Bucket> buckets = new LinkedHashMap<>(16, 0.75f, true);
+
+        @SuppressWarnings("unchecked")
+        private final ArrayDeque<String>[] wheel = new ArrayDeque[WHEEL_SLOTS];
+
+        private long currentTick = -1;
+
+        /**
+         * Drop the least recently used bucket. Its entry on the wheel is skipped, or rescheduled if the key came
+         * back in the meantime.
+         */
+        private void evictLeastRecentlyUsed() {
+            Iterator<Bucket> iterator = buckets.values().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+
+        private void schedule(String key, Bucket bucket) {
+            int slot = (int) (bucket.expiresAtTick & (WHEEL_SLOTS - 1));
+            if (wheel[slot] == null) {
+                wheel[slot] = new ArrayDeque<>();
+            }
+            wheel[slot].add(key);
+            bucket.scheduled = true;
+        }
+
+        /**
+         * Drop the buckets whose tick has passed. Buckets used since they were scheduled, or scheduled more than a
+         * turn of the wheel ahead, are scheduled again at their current expiration.
+         */
+        private void advance(long nowTick) {
+            if (currentTick < 0 || nowTick - currentTick > WHEEL_SLOTS) {
+                currentTick = nowTick - WHEEL_SLOTS;
+            }
+            List<String> due = new ArrayList<>();
+            while (currentTick < nowTick) {
+                currentTick++;
+                ArrayDeque<String> slot = wheel[(int) (currentTick & (WHEEL_SLOTS - 1))];
+                if (slot == null || slot.isEmpty()) {
+                    continue;
+                }
+                due.addAll(slot);
+                slot.clear();
+                for (String key : due) {
+                    Bucket bucket = buckets.get(key);
+                    if (bucket == null) {
+                        continue;
+                    }
+                    if (bucket.expiresAtTick <= nowTick) {
+                        buckets.remove(key);
+                    } else {
+                        schedule(key, bucket);
+                    }
+                }
+                due.clear();
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.anywr.ahmedtest.security.jwt;
 
+import com.anywr.ahmedtest.security.ApiLimitFilter;
 import org.springframework.security.config.annotation.SecurityConfigurerAdapter;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.DefaultSecurityFilterChain;
@@ -9,13 +10,18 @@ public class JWTConfigurer extends SecurityConfigurerAdapter<DefaultSecurityFilt
 
     private final TokenProvider tokenProvider;
 
-    public JWTConfigurer(TokenProvider tokenProvider) {
+    private final ApiLimitFilter apiLimitFilter;
+
+    public JWTConfigurer(TokenProvider tokenProvider, ApiLimitFilter apiLimitFilter) {
         this.tokenProvider = tokenProvider;
+        this.apiLimitFilter = apiLimitFilter;
     }
 
     @Override
     public void configure(HttpSecurity http) {
         JWTFilter customFilter = new JWTFilter(tokenProvider);
         http.addFilterBefore(customFilter, UsernamePasswordAuthenticationFilter.class);
+        // after the JWT filter, so that the limits apply per login
+        http.addFilterAfter(apiLimitFilter, JWTFilter.class);
     }
 }
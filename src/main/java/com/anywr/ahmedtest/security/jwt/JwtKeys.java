@@ -0,0 +1,201 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The keys used to sign and verify JWTs: either a single HMAC secret, or the key pairs of a keystore.
+ * <p>
+ * With a keystore, tokens are signed with the private key of the active alias and carry the alias as their
+ * {@code kid} header. Tokens are verified with the public key of the certificate stored under their {@code kid},
+ * so a new key pair can be added and made active while the tokens signed with the previous one stay valid until
+ * they expire. The public keys are decoded once, when the keystore is loaded, and published as a JWK set.
+ */
+public final class JwtKeys {
+
+    private final Key signingKey;
+
+    private final String signingKeyId;
+
+    private final SignatureAlgorithm signatureAlgorithm;
+
+    private final Map<String, Key> verificationKeys;
+
+    private final List<Map<String, Object>> jwks;
+
+    private JwtKeys(
+        Key signingKey,
+        String signingKeyId,
+        SignatureAlgorithm signatureAlgorithm,
+        Map<String, Key> verificationKeys,
+        List<Map<String, Object>> jwks
+    ) {
+        this.signingKey = signingKey;
+        this.signingKeyId = signingKeyId;
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.verificationKeys = verificationKeys;
+        this.jwks = jwks;
+    }
+
+    /**
+     * @param secret the HMAC secret, which is never published.
+     * @return keys signing and verifying with HS256.
+     */
+    public static JwtKeys hmac(Key secret) {
+        return new JwtKeys(secret, null, SignatureAlgorithm.HS256, Map.of(), List.of());
+    }
+
+    /**
+     * Load the RSA and EC key pairs of a keystore. RSA keys sign with RS256, EC keys with ES256, ES384 or ES512
+     * depending on their curve.
+     *
+     * @param path the keystore file.
+     * @param type the keystore type, e.g. {@code PKCS12}.
+     * @param password the password of the keystore and of its keys.
+     * @param activeAlias the alias of the key pair signing new tokens.
+     * @return the keys.
+     */
+    public static JwtKeys fromKeyStore(String path, String type, char[] password, String activeAlias) {
+        try (InputStream in = Files.newInputStream(Path.of(path))) {
+            KeyStore keyStore = KeyStore.getInstance(type);
+            keyStore.load(in, password);
+            Map<String, Key> verificationKeys = new LinkedHashMap<>();
+            List<Map<String, Object>> jwks = new ArrayList<>();
+            for (String alias : Collections.list(keyStore.aliases())) {
+                Certificate certificate = keyStore.getCertificate(alias);
+                SignatureAlgorithm algorithm = certificate != null ? algorithmOf(certificate.getPublicKey()) : null;
+                if (algorithm != null) {
+                    verificationKeys.put(alias, certificate.getPublicKey());
+                    jwks.add(toJwk(alias, algorithm, certificate.getPublicKey()));
+                }
+            }
+            Key signingKey = keyStore.getKey(activeAlias, password);
+            if (!(signingKey instanceof PrivateKey) || !verificationKeys.containsKey(activeAlias)) {
+                throw new IllegalStateException("No RSA or EC key pair under the alias " + activeAlias + " in " + path);
+            }
+            return new JwtKeys(
+                signingKey,
+                activeAlias,
+                algorithmOf((PublicKey) verificationKeys.get(activeAlias)),
+                Map.copyOf(verificationKeys),
+                List.copyOf(jwks)
+            );
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Could not load the JWT keystore " + path, e);
+        }
+    }
+
+    private static SignatureAlgorithm algorithmOf(PublicKey publicKey) {
+        if (publicKey instanceof RSAPublicKey) {
+            return SignatureAlgorithm.RS256;
+        }
+        if (publicKey instanceof ECPublicKey) {
+            switch (fieldSize((ECPublicKey) publicKey)) {
+                case 256:
+                    return SignatureAlgorithm.ES256;
+                case 384:
+                    return SignatureAlgorithm.ES384;
+                case 521:
+                    return SignatureAlgorithm.ES512;
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Object> toJwk(String kid, SignatureAlgorithm algorithm, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        if (publicKey instanceof RSAPublicKey) {
+            RSAPublicKey rsaPublicKey = (RSAPublicKey) publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(rsaPublicKey.getModulus(), 0));
+            jwk.put("e", base64Url(rsaPublicKey.getPublicExponent(), 0));
+        } else {
+            ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+            int fieldSize = fieldSize(ecPublicKey);
+            int length = (fieldSize + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + fieldSize);
+            jwk.put("x", base64Url(ecPublicKey.getW().getAffineX(), length));
+            jwk.put("y", base64Url(ecPublicKey.getW().getAffineY(), length));
+        }
+        return Collections.unmodifiableMap(jwk);
+    }
+
+    private static int fieldSize(ECPublicKey publicKey) {
+        return publicKey.getParams().getCurve().getField().getFieldSize();
+    }
+
+    /**
+     * Unsigned big-endian encoding, left padded with zeros to {@code length} bytes.
+     */
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return the {@code kid} of new tokens, {@code null} with an HMAC secret.
+     */
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public SignatureAlgorithm getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * @param kid the {@code kid} header of a token.
+     * @return the public key verifying the token, {@code null} if unknown.
+     */
+    public Key getVerificationKey(String kid) {
+        return kid != null ? verificationKeys.get(kid) : null;
+    }
+
+    public boolean isAsymmetric() {
+        return signingKeyId != null;
+    }
+
+    /**
+     * @return the public keys as JWKs, empty with an HMAC secret.
+     */
+    public List<Map<String, Object>> getJwks() {
+        return jwks;
+    }
+}
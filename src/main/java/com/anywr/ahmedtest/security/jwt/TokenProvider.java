@@ -1,12 +1,14 @@
 package com.anywr.ahmedtest.security.jwt;
 
 import com.anywr.ahmedtest.management.SecurityMetersService;
+import com.anywr.ahmedtest.security.GrantedAuthorities;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Clock;
 import java.util.*;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -15,7 +17,6 @@ import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
 import org.springframework.util.ObjectUtils;
@@ -30,88 +31,176 @@ public class TokenProvider {
 
 	private static final String INVALID_JWT_TOKEN = "Invalid JWT token.";
 
-	private final Key key;
+	private final JwtKeys keys;
 
 	private final JwtParser jwtParser;
 
 	private final long tokenValidityInMilliseconds;
 
-	private final long tokenValidityInMillisecondsForRememberMe;
-
 	private final SecurityMetersService securityMetersService;
 
-	public TokenProvider(SecurityMetersService securityMetersService, Environment environment) {
-		byte[] keyBytes;
-		String secret = environment.getProperty("jwt.secret");
-		if (!ObjectUtils.isEmpty(secret)) {
-			log.debug("Using a Base64-encoded JWT secret key");
-			keyBytes = Decoders.BASE64.decode(secret);
+	private final TokenRevocationList revocationList;
+
+	private final VerifiedTokenCache tokenCache;
+
+	public TokenProvider(SecurityMetersService securityMetersService, TokenRevocationList revocationList,
+			Environment environment) {
+		if ("keystore".equals(environment.getProperty("jwt.signing.mode", "hmac"))) {
+			log.debug("Using the JWT key pairs of a keystore");
+			JwtKeys keyStoreKeys = JwtKeys.fromKeyStore(environment.getRequiredProperty("jwt.keystore.path"),
+					environment.getProperty("jwt.keystore.type", "PKCS12"),
+					environment.getRequiredProperty("jwt.keystore.password").toCharArray(),
+					environment.getRequiredProperty("jwt.keystore.activeAlias"));
+			keys = keyStoreKeys;
+			// the public keys are decoded once, a token only selects one by its kid
+			jwtParser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+				@Override
+				public Key resolveSigningKey(JwsHeader header, Claims claims) {
+					Key verificationKey = keyStoreKeys.getVerificationKey(header.getKeyId());
+					if (verificationKey == null) {
+						throw new SignatureException("Unknown JWT key id " + header.getKeyId());
+					}
+					return verificationKey;
+				}
+			}).build();
 		} else {
-			log.warn("Warning: the JWT key used is not Base64-encoded. ");
-			keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+			byte[] keyBytes;
+			String secret = environment.getProperty("jwt.secret");
+			if (!ObjectUtils.isEmpty(secret)) {
+				log.debug("Using a Base64-encoded JWT secret key");
+				keyBytes = Decoders.BASE64.decode(secret);
+			} else {
+				log.warn("Warning: the JWT key used is not Base64-encoded. ");
+				keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+			}
+			keys = JwtKeys.hmac(Keys.hmacShaKeyFor(keyBytes));
+			jwtParser = Jwts.parserBuilder().setSigningKey(keys.getSigningKey()).build();
 		}
-		key = Keys.hmacShaKeyFor(keyBytes);
-		jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
 		this.tokenValidityInMilliseconds = 1000 * environment.getProperty("jwt.tokenValidityTime", Integer.class);
-		this.tokenValidityInMillisecondsForRememberMe = 1000
-				* environment.getProperty("jwt.tokenRememberMeValidityTime", Integer.class);
 
 		this.securityMetersService = securityMetersService;
+		this.revocationList = revocationList;
+		if (environment.getProperty("jwt.cache.enabled", Boolean.class, false)) {
+			this.tokenCache = new VerifiedTokenCache(environment.getProperty("jwt.cache.maxSize", Integer.class, 10000),
+					securityMetersService, Clock.systemUTC());
+		} else {
+			this.tokenCache = null;
+		}
 	}
 
-	public String createToken(Authentication authentication, boolean rememberMe) {
+	/**
+	 * Create a short lived access token, with a random id ({@code jti}) so that it
+	 * can be revoked. Remember me is handled by the lifetime of the refresh token.
+	 *
+	 * @param authentication the authenticated user.
+	 * @return the token.
+	 */
+	public String createToken(Authentication authentication) {
 		String authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority)
 				.collect(Collectors.joining(","));
 
 		long now = (new Date()).getTime();
-		Date validity;
-		if (rememberMe) {
-			validity = new Date(now + this.tokenValidityInMillisecondsForRememberMe);
-		} else {
-			validity = new Date(now + this.tokenValidityInMilliseconds);
-		}
+		Date validity = new Date(now + this.tokenValidityInMilliseconds);
 
-		return Jwts.builder().setSubject(authentication.getName()).claim(AUTHORITIES_KEY, authorities)
-				.signWith(key, SignatureAlgorithm.HS256).setExpiration(validity).compact();
+		JwtBuilder builder = Jwts.builder();
+		if (keys.isAsymmetric()) {
+			builder.setHeaderParam(JwsHeader.KEY_ID, keys.getSigningKeyId());
+		}
+		return builder.setId(UUID.randomUUID().toString()).setSubject(authentication.getName())
+				.claim(AUTHORITIES_KEY, authorities)
+				.signWith(keys.getSigningKey(), keys.getSignatureAlgorithm()).setExpiration(validity).compact();
 	}
 
-	public Authentication getAuthentication(String token) {
-		Claims claims = jwtParser.parseClaimsJws(token).getBody();
+	/**
+	 * @return the public keys verifying the tokens, as JWKs. Empty when tokens are
+	 *         signed with an HMAC secret.
+	 */
+	public List<Map<String, Object>> getJwks() {
+		return keys.getJwks();
+	}
 
-		Collection<? extends GrantedAuthority> authorities = Arrays
-				.stream(claims.get(AUTHORITIES_KEY).toString().split(",")).filter(auth -> !auth.trim().isEmpty())
-				.map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+	/**
+	 * Build the authentication of a verified token.
+	 *
+	 * @param claims the claims returned by {@link #parseToken(String)}.
+	 * @param token  the token, kept as the credentials.
+	 * @return the authentication.
+	 */
+	public Authentication getAuthentication(Claims claims, String token) {
+		Collection<? extends GrantedAuthority> authorities = GrantedAuthorities
+				.fromClaim(claims.get(AUTHORITIES_KEY).toString());
 
 		User principal = new User(claims.getSubject(), "", authorities);
 
 		return new UsernamePasswordAuthenticationToken(principal, token, authorities);
 	}
 
-	public boolean validateToken(String authToken) {
+	/**
+	 * Verify the signature and expiration of a token with a single parse, then
+	 * check that it was not revoked. When the verified token cache is enabled, a
+	 * token seen before is only checked for expiration and revocation.
+	 *
+	 * @param authToken the token.
+	 * @return the verified claims, or why the token was rejected.
+	 */
+	public TokenValidationResult parseToken(String authToken) {
+		Claims cached = tokenCache != null ? tokenCache.get(authToken) : null;
+		if (cached != null) {
+			return checkRevocation(cached);
+		}
 		try {
-			jwtParser.parseClaimsJws(authToken);
-
-			return true;
+			Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+			if (tokenCache != null) {
+				tokenCache.put(authToken, claims);
+			}
+			return checkRevocation(claims);
 		} catch (ExpiredJwtException e) {
 			this.securityMetersService.trackTokenExpired();
 
 			log.trace(INVALID_JWT_TOKEN, e);
+			return TokenValidationResult.invalid(TokenValidationResult.Failure.EXPIRED);
 		} catch (UnsupportedJwtException e) {
 			this.securityMetersService.trackTokenUnsupported();
 
 			log.trace(INVALID_JWT_TOKEN, e);
+			return TokenValidationResult.invalid(TokenValidationResult.Failure.UNSUPPORTED);
 		} catch (MalformedJwtException e) {
 			this.securityMetersService.trackTokenMalformed();
 
 			log.trace(INVALID_JWT_TOKEN, e);
+			return TokenValidationResult.invalid(TokenValidationResult.Failure.MALFORMED);
 		} catch (SignatureException e) {
 			this.securityMetersService.trackTokenInvalidSignature();
 
 			log.trace(INVALID_JWT_TOKEN, e);
+			return TokenValidationResult.invalid(TokenValidationResult.Failure.INVALID_SIGNATURE);
 		} catch (IllegalArgumentException e) {
 			log.error("Token validation error {}", e.getMessage());
+			return TokenValidationResult.invalid(TokenValidationResult.Failure.INVALID);
 		}
+	}
+
+	private TokenValidationResult checkRevocation(Claims claims) {
+		if (revocationList.isRevoked(claims.getId())) {
+			this.securityMetersService.trackTokenRevoked();
+			return TokenValidationResult.invalid(TokenValidationResult.Failure.REVOKED);
+		}
+		return TokenValidationResult.valid(claims);
+	}
 
-		return false;
+	/**
+	 * Revoke a valid token until it expires.
+	 *
+	 * @param authToken the token.
+	 */
+	public void revoke(String authToken) {
+		TokenValidationResult result = parseToken(authToken);
+		if (result.isValid()) {
+			revocationList.revoke(result.getClaims().getId(), result.getClaims().getExpiration().getTime());
+		}
+	}
+
+	public boolean validateToken(String authToken) {
+		return parseToken(authToken).isValid();
 	}
 }
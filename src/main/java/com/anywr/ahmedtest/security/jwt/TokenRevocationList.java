@@ -0,0 +1,114 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ids ({@code jti}) of the revoked access tokens, kept until the tokens expire.
+ * <p>
+ * Lookups first check a bloom filter, so that tokens that were never revoked, nearly all of them, are accepted
+ * in constant time without touching the exact set. The list is local to this instance: revocations are not
+ * shared between nodes and are lost on restart, which is why access tokens are short lived.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final int BLOOM_BITS = 1 << 20;
+
+    private static final int BLOOM_HASHES = 5;
+
+    // expired ids are removed, and the bloom filter rebuilt, at most once per minute
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    private volatile AtomicLongArray bloom = new AtomicLongArray(BLOOM_BITS / 64);
+
+    private long lastPurge;
+
+    private final Clock clock;
+
+    public TokenRevocationList() {
+        this(Clock.systemUTC());
+    }
+
+    TokenRevocationList(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param jti the id of the token.
+     * @param expiresAtMillis the expiration of the token, after which it is rejected anyway.
+     */
+    public synchronized void revoke(String jti, long expiresAtMillis) {
+        long now = clock.millis();
+        if (jti == null || expiresAtMillis <= now) {
+            return;
+        }
+        revoked.put(jti, expiresAtMillis);
+        if (now - lastPurge >= PURGE_INTERVAL_MILLIS) {
+            purge(now);
+        } else {
+            add(bloom, jti);
+        }
+    }
+
+    /**
+     * @param jti the id of the token.
+     * @return whether the token was revoked.
+     */
+    public boolean isRevoked(String jti) {
+        return jti != null && mightContain(bloom, jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * @return the number of revoked ids kept, including expired ones that were not purged yet.
+     */
+    int size() {
+        return revoked.size();
+    }
+
+    private void purge(long now) {
+        lastPurge = now;
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        AtomicLongArray rebuilt = new AtomicLongArray(BLOOM_BITS / 64);
+        revoked.keySet().forEach(jti -> add(rebuilt, jti));
+        bloom = rebuilt;
+    }
+
+    private static void add(AtomicLongArray bits, String jti) {
+        int h1 = jti.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+            bits.accumulateAndGet(bit >>> 6, 1L << (bit & 63), (current, mask) -> current | mask);
+        }
+    }
+
+    private static boolean mightContain(AtomicLongArray bits, String jti) {
+        int h1 = jti.hashCode();
+        int h2 = mix(h1);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = (h1 + i * h2) & (BLOOM_BITS - 1);
+            if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The murmur3 finalizer, odd so that the probes of a key never collapse on the same bit.
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h | 1;
+    }
+}
@@ -0,0 +1,63 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import io.jsonwebtoken.Claims;
+
+/**
+ * The outcome of a single parse of a JWT: its verified claims, or the reason it was rejected.
+ */
+public final class TokenValidationResult {
+
+    public enum Failure {
+        EXPIRED,
+        UNSUPPORTED,
+        MALFORMED,
+        INVALID_SIGNATURE,
+        REVOKED,
+        INVALID,
+    }
+
+    private final Claims claims;
+
+    private final Failure failure;
+
+    private TokenValidationResult(Claims claims, Failure failure) {
+        this.claims = claims;
+        this.failure = failure;
+    }
+
+    public static TokenValidationResult valid(Claims claims) {
+        return new TokenValidationResult(claims, null);
+    }
+
+    public static TokenValidationResult invalid(Failure failure) {
+        return new TokenValidationResult(null, failure);
+    }
+
+    public boolean isValid() {
+        return failure == null;
+    }
+
+    /**
+     * @return the verified claims, {@code null} if the token is not valid.
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * @return why the token was rejected, {@code null} if it is valid.
+     */
+    public Failure getFailure() {
+        return failure;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "TokenValidationResult{" +
+            "valid=" + isValid() +
+            ", failure=" + getFailure() +
+            ", subject='" + (claims != null ? claims.getSubject() : null) + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,128 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import io.jsonwebtoken.Claims;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of the claims of verified tokens, keyed by the SHA-256 digest of the token so that the
+ * tokens themselves are not kept in memory.
+ * <p>
+ * An entry is never returned once its token has expired. When the cache is full, expired entries are
+ * evicted first, then arbitrary entries until the size is back under the limit.
+ */
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // a full cache is scanned for expired entries at most once per second
+    private static final long EXPIRED_SWEEP_INTERVAL_MILLIS = 1000;
+
+    private final Map<ByteBuffer, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastExpiredSweep = new AtomicLong();
+
+    private final int maxSize;
+
+    private final SecurityMetersService securityMetersService;
+
+    private final Clock clock;
+
+    public VerifiedTokenCache(int maxSize, SecurityMetersService securityMetersService, Clock clock) {
+        this.maxSize = maxSize;
+        this.securityMetersService = securityMetersService;
+        this.clock = clock;
+    }
+
+    /**
+     * @param token the token.
+     * @return the claims of the token if it was verified and has not expired yet, {@code null} otherwise.
+     */
+    public Claims get(String token) {
+        ByteBuffer key = digest(token);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt <= clock.millis()) {
+            if (entries.remove(key, entry)) {
+                securityMetersService.trackTokenCacheEviction(SecurityMetersService.TOKEN_CACHE_EVICTION_EXPIRED);
+            }
+            entry = null;
+        }
+        if (entry == null) {
+            securityMetersService.trackTokenCacheMiss();
+            return null;
+        }
+        securityMetersService.trackTokenCacheHit();
+        return entry.claims;
+    }
+
+    /**
+     * Cache the claims of a verified token until its expiration. Tokens without expiration are not cached.
+     *
+     * @param token the token.
+     * @param claims its verified claims.
+     */
+    public void put(String token, Claims claims) {
+        Date expiration = claims.getExpiration();
+        long now = clock.millis();
+        if (expiration == null || expiration.getTime() <= now) {
+            return;
+        }
+        entries.put(digest(token), new Entry(claims, expiration.getTime()));
+        if (entries.size() > maxSize) {
+            trim(now);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void trim(long now) {
+        long lastSweep = lastExpiredSweep.get();
+        if (now - lastSweep >= EXPIRED_SWEEP_INTERVAL_MILLIS && lastExpiredSweep.compareAndSet(lastSweep, now)) {
+            for (Map.Entry<ByteBuffer, Entry> entry : entries.entrySet()) {
+                if (entry.getValue().expiresAt <= now && entries.remove(entry.getKey(), entry.getValue())) {
+                    securityMetersService.trackTokenCacheEviction(SecurityMetersService.TOKEN_CACHE_EVICTION_EXPIRED);
+                }
+            }
+        }
+        Iterator<Map.Entry<ByteBuffer, Entry>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            Map.Entry<ByteBuffer, Entry> entry = iterator.next();
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                securityMetersService.trackTokenCacheEviction(SecurityMetersService.TOKEN_CACHE_EVICTION_SIZE);
+            }
+        }
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class Entry {
+
+        private final Claims claims;
+
+        private final long expiresAt;
+
+        private Entry(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.anywr.ahmedtest.service;
+
+import com.anywr.ahmedtest.config.ReplicaLag;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service keeping a change counter per table, bumped by the writes through the services, so that a list that was
+ * not changed since a client read it can be answered with {@code 304 (Not Modified)} without querying it again.
+ * <p>
+ * Counters are bumped after the writing transaction commits: a list read in between may carry the new rows with
+ * the previous token, which only costs the client one more full response. Counters are kept per instance and start
+ * from a random epoch, so tokens of different instances or runs never match. Each commit is also recorded in
+ * {@link ReplicaLag}, so that lists are read from the primary until the replica applied it: a list is never
+ * answered under a new token without the write that bumped it.
+ */
+@Service
+public class ChangeTokenService {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private final ReplicaLag replicaLag;
+
+    public ChangeTokenService(ReplicaLag replicaLag) {
+        this.replicaLag = replicaLag;
+    }
+
+    /**
+     * @return the change token of the student lists, which show study class names and are filtered by teacher.
+     */
+    public String studentsToken() {
+        return token(CountEstimateService.STUDENT_TABLE, CountEstimateService.STUDY_CLASS_TABLE, CountEstimateService.TEACHER_TABLE);
+    }
+
+    /**
+     * @return the change token of the teacher lists, which show study class names.
+     */
+    public String teachersToken() {
+        return token(CountEstimateService.TEACHER_TABLE, CountEstimateService.STUDY_CLASS_TABLE);
+    }
+
+    /**
+     * @return the change token of the study class lists, which show teacher names.
+     */
+    public String studyClassesToken() {
+        return token(CountEstimateService.STUDY_CLASS_TABLE, CountEstimateService.TEACHER_TABLE);
+    }
+
+    /**
+     * Record a write on a table, effective when the current transaction commits.
+     *
+     * @param table the table name.
+     */
+    public void changed(String table) {
+        AtomicLong counter = counters.computeIfAbsent(table, key -> new AtomicLong());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            replicaLag.writeCommitted();
+            counter.incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    // the replica is avoided before the new token can be read
+                    replicaLag.writeCommitted();
+                    counter.incrementAndGet();
+                }
+            }
+        );
+    }
+
+    private String token(String... tables) {
+        StringBuilder token = new StringBuilder(epoch);
+        for (String table : tables) {
+            AtomicLong counter = counters.get(table);
+            token.append('.').append(counter != null ? counter.get() : 0);
+        }
+        return token.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.anywr.ahmedtest.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service serving approximate row counts for {@link com.anywr.ahmedtest.management.CountMode#ESTIMATE} pages.
+ *
+ * Unfiltered counts are read from the PostgreSQL table statistics ({@code pg_class.reltuples}). Filtered counts are
+ * computed once and cached per filter until a write on the table invalidates them, once the writing transaction
+ * commits: a count computed in between, without the write, is dropped too.
+ */
+@Service
+public class CountEstimateService {
+
+    static final String STUDENT_TABLE = "student";
+
+    static final String TEACHER_TABLE = "teacher";
+
+    static final String STUDY_CLASS_TABLE = "study_class";
+
+    private static final String UNFILTERED = "";
+
+    private static final int MAX_FILTERS_PER_TABLE = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(CountEstimateService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<String, Map<String, Long>> counts = new ConcurrentHashMap<>();
+
+    public CountEstimateService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Estimate the number of rows of an unfiltered table.
+     *
+     * @param table the table name.
+     * @param exactCount computes the exact count when the table has no statistics yet.
+     * @return the estimated number of rows.
+     */
+    public long estimate(String table, LongSupplier exactCount) {
+        Long reltuples = jdbcTemplate.queryForObject(
+            "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)",
+            Long.class,
+            table
+        );
+        if (reltuples != null && reltuples > 0) {
+            return reltuples;
+        }
+        return estimate(table, UNFILTERED, exactCount);
+    }
+
+    /**
+     * Estimate the number of rows of a table matching a filter.
+     *
+     * @param table the table name.
+     * @param filterKey a key identifying the filter.
+     * @param exactCount computes the exact count on a cache miss.
+     * @return the cached count.
+     */
+    public long estimate(String table, String filterKey, LongSupplier exactCount) {
+        Map<String, Long> tableCounts = counts.computeIfAbsent(table, key -> new ConcurrentHashMap<>());
+        Long count = tableCounts.get(filterKey);
+        if (count == null) {
+            if (tableCounts.size() >= MAX_FILTERS_PER_TABLE) {
+                tableCounts.clear();
+            }
+            count = exactCount.getAsLong();
+            tableCounts.put(filterKey, count);
+        }
+        return count;
+    }
+
+    /**
+     * Turn a slice into a page carrying an estimated total. The total is raised when needed so that it never
+     * contradicts the slice itself, e.g. announcing the current page as the last one while a next page exists.
+     *
+     * @param slice the slice.
+     * @param estimatedTotal the estimated total number of elements.
+     * @return the page.
+     */
+    public static <T> Page<T> withEstimatedTotal(Slice<T> slice, long estimatedTotal) {
+        long seen = slice.getPageable().isPaged()
+            ? slice.getPageable().getOffset() + slice.getNumberOfElements()
+            : slice.getNumberOfElements();
+        long total = Math.max(estimatedTotal, slice.hasNext() ? seen + 1 : seen);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    /**
+     * Drop the cached counts of a table when the current transaction commits, to be called when rows are inserted,
+     * moved or deleted.
+     *
+     * @param table the table name.
+     */
+    public void invalidate(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear(table);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear(table);
+                }
+            }
+        );
+    }
+
+    private void clear(String table) {
+        log.trace("Invalidating cached counts of {}", table);
+        Map<String, Long> tableCounts = counts.get(table);
+        if (tableCounts != null) {
+            tableCounts.clear();
+        }
+    }
+}
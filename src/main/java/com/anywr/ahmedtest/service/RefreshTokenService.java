@@ -0,0 +1,123 @@
+package com.anywr.ahmedtest.service;
+
+import com.anywr.ahmedtest.domain.RefreshToken;
+import com.anywr.ahmedtest.domain.User;
+import com.anywr.ahmedtest.repository.RefreshTokenRepository;
+import com.anywr.ahmedtest.repository.RefreshTokenRepository.RefreshTokenOwner;
+import com.anywr.ahmedtest.repository.UserRepository;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation for managing {@link RefreshToken}.
+ * <p>
+ * Refresh tokens are random values handed to the client once; only their SHA-256 digest is stored. A refresh
+ * token can be used once, and is replaced by a new one with the same expiration.
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    private final UserRepository userRepository;
+
+    private final long validityInMilliseconds;
+
+    private final long validityInMillisecondsForRememberMe;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository, Environment environment) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.validityInMilliseconds = 1000L * environment.getProperty("jwt.refreshTokenValidityTime", Integer.class);
+        this.validityInMillisecondsForRememberMe = 1000L * environment.getProperty("jwt.refreshTokenRememberMeValidityTime", Integer.class);
+        if (environment.containsProperty("jwt.tokenRememberMeValidityTime")) {
+            // it was the lifetime of remember-me access tokens, which now live jwt.tokenValidityTime like the others
+            log.warn("jwt.tokenRememberMeValidityTime is ignored, set jwt.refreshTokenRememberMeValidityTime instead");
+        }
+    }
+
+    /**
+     * Create a refresh token for a user who just logged in.
+     *
+     * @param login the login of the user.
+     * @param rememberMe whether the token lives {@code jwt.refreshTokenRememberMeValidityTime} instead of {@code jwt.refreshTokenValidityTime}.
+     * @return the token, which is not stored.
+     */
+    public String create(String login, boolean rememberMe) {
+        return create(login, Instant.now().plusMillis(rememberMe ? validityInMillisecondsForRememberMe : validityInMilliseconds));
+    }
+
+    /**
+     * Create a refresh token expiring at a given time.
+     *
+     * @param login the login of the user.
+     * @param expiresAt the expiration of the token.
+     * @return the token, which is not stored.
+     */
+    public String create(String login, Instant expiresAt) {
+        log.debug("Request to create a RefreshToken for : {}", login);
+        refreshTokenRepository.deleteExpiredByLogin(login, Instant.now());
+        User user = userRepository
+            .findOneByLogin(login)
+            .orElseThrow(() -> new UsernameNotFoundException("User " + login + " was not found in the database"));
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken().tokenHash(digest(token)).user(user).expiresAt(expiresAt));
+        return token;
+    }
+
+    /**
+     * Use a refresh token, which is deleted so that it can't be used again.
+     *
+     * @param token the token.
+     * @return the owner and expiration of the token, or empty if the token is unknown, expired or was already used.
+     */
+    public Optional<RefreshTokenOwner> consume(String token) {
+        Optional<RefreshTokenOwner> owner = refreshTokenRepository.findOwnerByTokenHash(digest(token));
+        // the delete decides between two concurrent uses of the same token
+        if (owner.isEmpty() || refreshTokenRepository.deleteOne(owner.get().getId()) == 0) {
+            return Optional.empty();
+        }
+        if (!owner.get().getExpiresAt().isAfter(Instant.now())) {
+            return Optional.empty();
+        }
+        return owner;
+    }
+
+    /**
+     * Delete all the refresh tokens of a user, so that none can be used to get a new access token.
+     *
+     * @param login the login of the user.
+     */
+    public void deleteAll(String login) {
+        log.debug("Request to delete all the RefreshTokens of : {}", login);
+        refreshTokenRepository.deleteByLogin(login);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return String.format("%064x", new BigInteger(1, hash));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
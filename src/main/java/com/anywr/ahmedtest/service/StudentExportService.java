@@ -0,0 +1,166 @@
+package com.anywr.ahmedtest.service;
+
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.service.dto.StudentDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation for exporting {@link Student}s.
+ * <p>
+ * Rows are read with plain JDBC in a read-only transaction, so that the PostgreSQL driver uses a server-side
+ * cursor of {@link #FETCH_SIZE} rows, and each row is written to the output as soon as it is read. No entity is
+ * loaded and no page is materialized, the memory used by an export does not depend on the number of students.
+ */
+@Service
+public class StudentExportService {
+
+    public static final int FETCH_SIZE = 1000;
+
+    private static final String SELECT =
+        "SELECT s.id, s.first_name, s.last_name, sc.id AS study_class_id, sc.name AS study_class_name " +
+        "FROM student s JOIN study_class sc ON sc.id = s.study_class_id";
+
+    private static final String ORDER_BY = " ORDER BY s.id";
+
+    private static final CsvSchema CSV_SCHEMA = CsvSchema
+        .builder()
+        .addColumn("id")
+        .addColumn("firstName")
+        .addColumn("lastName")
+        .addColumn("studyClassId")
+        .addColumn("studyClassName")
+        .setUseHeader(true)
+        .build();
+
+    private final Logger log = LoggerFactory.getLogger(StudentExportService.class);
+
+    private final StudentService studentService;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectWriter jsonWriter;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    public StudentExportService(
+        StudentService studentService,
+        DataSource dataSource,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper
+    ) {
+        this.studentService = studentService;
+        JdbcTemplate cursorJdbcTemplate = new JdbcTemplate(dataSource);
+        cursorJdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(cursorJdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.jsonWriter = objectMapper.writerFor(StudentDTO.class);
+    }
+
+    /**
+     * Write the students as newline delimited JSON, one {@link StudentDTO} per line, ordered by id.
+     *
+     * @param out the output, left open.
+     * @param studyClassName StudyClass name
+     * @param teacherFullName Teacher full name 'firsName lastName'
+     */
+    public void exportNdjson(OutputStream out, String studyClassName, String teacherFullName) {
+        try (JsonGenerator generator = jsonWriter.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // lines are separated by the newline alone, not by the default space between root values
+            generator.setRootValueSeparator(null);
+            export(
+                studyClassName,
+                teacherFullName,
+                rs -> {
+                    try {
+                        jsonWriter.writeValue(
+                            generator,
+                            new StudentDTO(
+                                rs.getLong("id"),
+                                rs.getString("first_name"),
+                                rs.getString("last_name"),
+                                rs.getLong("study_class_id"),
+                                rs.getString("study_class_name")
+                            )
+                        );
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the students as CSV with an {@code id,firstName,lastName,studyClassId,studyClassName} header, ordered by id.
+     *
+     * @param out the output, left open.
+     * @param studyClassName StudyClass name
+     * @param teacherFullName Teacher full name 'firsName lastName'
+     */
+    public void exportCsv(OutputStream out, String studyClassName, String teacherFullName) {
+        try (SequenceWriter writer = csvMapper.writer(CSV_SCHEMA).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(out)) {
+            Object[] row = new Object[5];
+            export(
+                studyClassName,
+                teacherFullName,
+                rs -> {
+                    row[0] = rs.getLong("id");
+                    row[1] = rs.getString("first_name");
+                    row[2] = rs.getString("last_name");
+                    row[3] = rs.getLong("study_class_id");
+                    row[4] = rs.getString("study_class_name");
+                    try {
+                        writer.write(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            );
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void export(String studyClassName, String teacherFullName, RowCallbackHandler rowHandler) {
+        log.debug("Request to export Students");
+        transactionTemplate.executeWithoutResult(status -> {
+            Optional<List<Long>> studyClassIds = studentService.resolveStudyClassIds(studyClassName, teacherFullName);
+            if (studyClassIds.isEmpty()) {
+                jdbcTemplate.query(SELECT + ORDER_BY, rowHandler);
+            } else if (!studyClassIds.get().isEmpty()) {
+                jdbcTemplate.query(
+                    SELECT + " WHERE s.study_class_id IN (:studyClassIds)" + ORDER_BY,
+                    Map.of("studyClassIds", studyClassIds.get()),
+                    rowHandler
+                );
+            }
+        });
+    }
+}
@@ -0,0 +1,200 @@
+package com.anywr.ahmedtest.service;
+
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.management.ImportMetersService;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.service.dto.BulkItemResult;
+import com.anywr.ahmedtest.service.dto.StudentImportRow;
+import com.anywr.ahmedtest.service.dto.StudentImportSummary;
+import com.anywr.ahmedtest.service.dto.StudyClassDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service Implementation for importing {@link Student} files.
+ * <p>
+ * Rows are parsed one at a time from the request body and written by {@link StudentService#importBatch(List)}
+ * in transactions of {@link #BATCH_SIZE} rows. The next row is only read once the current batch is committed,
+ * so a slow database slows down the reading of the file instead of buffering it, and the memory used by an
+ * import does not depend on the size of the file.
+ */
+@Service
+public class StudentImportService {
+
+    public static final int BATCH_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(StudentImportService.class);
+
+    private final StudentService studentService;
+
+    private final StudyClassRepository studyClassRepository;
+
+    private final ImportMetersService importMetersService;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    public StudentImportService(
+        StudentService studentService,
+        StudyClassRepository studyClassRepository,
+        ImportMetersService importMetersService,
+        Validator validator,
+        ObjectMapper objectMapper
+    ) {
+        this.studentService = studentService;
+        this.studyClassRepository = studyClassRepository;
+        this.importMetersService = importMetersService;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Import students from a CSV file with a {@code firstName,lastName,studyClassName} header.
+     *
+     * @param in the CSV content.
+     * @return the import summary.
+     * @throws IOException if the content can't be read.
+     */
+    public StudentImportSummary importCsv(InputStream in) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<StudentImportRow> rows = csvMapper.readerFor(StudentImportRow.class).with(schema).readValues(in)) {
+            return importRows(rows);
+        }
+    }
+
+    /**
+     * Import students from newline delimited JSON, one {@code {firstName, lastName, studyClassName}} object per line.
+     *
+     * @param in the NDJSON content.
+     * @return the import summary.
+     * @throws IOException if the content can't be read.
+     */
+    public StudentImportSummary importNdjson(InputStream in) throws IOException {
+        try (MappingIterator<StudentImportRow> rows = objectMapper.readerFor(StudentImportRow.class).readValues(in)) {
+            return importRows(rows);
+        }
+    }
+
+    private StudentImportSummary importRows(MappingIterator<StudentImportRow> rows) throws IOException {
+        Map<String, Long> studyClassIds = loadStudyClassIds();
+        StudentImportSummary summary = new StudentImportSummary();
+        List<Student> batch = new ArrayList<>(BATCH_SIZE);
+        List<Integer> batchIndexes = new ArrayList<>(BATCH_SIZE);
+        importMetersService.trackImportStarted();
+        try {
+            for (int index = 0;; index++) {
+                StudentImportRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // the iterator skips to the next row
+                    reject(summary, index, "Invalid row: " + e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    summary.abort("Unreadable content at row " + index + ": " + e.getOriginalMessage());
+                    break;
+                }
+                Long studyClassId = studyClassIds.get(row.getStudyClassName());
+                if (studyClassId == null) {
+                    String error = studyClassIds.containsKey(row.getStudyClassName())
+                        ? "Study Class name is ambiguous"
+                        : "Study Class doesn't exist";
+                    reject(summary, index, error);
+                    continue;
+                }
+                Student student = new Student()
+                    .firstName(row.getFirstName())
+                    .lastName(row.getLastName())
+                    .studyClass(new StudyClass().id(studyClassId));
+                String error = validate(student);
+                if (error != null) {
+                    reject(summary, index, error);
+                    continue;
+                }
+                batch.add(student);
+                batchIndexes.add(index);
+                if (batch.size() == BATCH_SIZE) {
+                    writeBatch(batch, batchIndexes, summary);
+                }
+            }
+            writeBatch(batch, batchIndexes, summary);
+        } finally {
+            importMetersService.trackImportFinished();
+        }
+        log.debug("Imported Students : {}", summary);
+        return summary;
+    }
+
+    /**
+     * Study class names are resolved in memory, the map is built once per import. Names shared by several
+     * study classes can't be resolved and are mapped to {@code null}.
+     */
+    private Map<String, Long> loadStudyClassIds() {
+        Map<String, Long> studyClassIds = new HashMap<>();
+        for (StudyClassDTO studyClass : studyClassRepository.findAllIdsAndNames()) {
+            if (studyClassIds.containsKey(studyClass.getName())) {
+                studyClassIds.put(studyClass.getName(), null);
+            } else {
+                studyClassIds.put(studyClass.getName(), studyClass.getId());
+            }
+        }
+        return studyClassIds;
+    }
+
+    private String validate(Student student) {
+        Set<ConstraintViolation<Student>> violations = validator.validate(student);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        ConstraintViolation<Student> violation = violations.iterator().next();
+        return violation.getPropertyPath() + " " + violation.getMessage();
+    }
+
+    private void writeBatch(List<Student> batch, List<Integer> batchIndexes, StudentImportSummary summary) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            studentService.importBatch(batch);
+            summary.addImported(batch.size());
+            importMetersService.trackBatchImported(batch.size());
+        } catch (DataIntegrityViolationException e) {
+            // a study class was deleted during the import
+            log.warn("Student import batch rejected : {}", e.getMostSpecificCause().getMessage());
+            for (Integer index : batchIndexes) {
+                reject(summary, index, "Batch rejected by the database");
+            }
+        }
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    private void reject(StudentImportSummary summary, int index, String error) {
+        summary.addRejected(BulkItemResult.rejected(index, null, error));
+        importMetersService.trackRowsRejected(1);
+    }
+}
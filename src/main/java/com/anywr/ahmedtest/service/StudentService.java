@@ -1,12 +1,35 @@
 package com.anywr.ahmedtest.service;
 
 import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.management.CountMode;
+import com.anywr.ahmedtest.management.KeysetCursor;
 import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import com.anywr.ahmedtest.service.dto.BulkItemResult;
+import com.anywr.ahmedtest.service.dto.StudentDTO;
+import com.anywr.ahmedtest.web.rest.errors.PreconditionFailedException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,8 +44,33 @@ public class StudentService {
 
     private final StudentRepository studentRepository;
 
-    public StudentService(StudentRepository studentRepository) {
+    private final StudyClassRepository studyClassRepository;
+
+    private final TeacherRepository teacherRepository;
+
+    private final CountEstimateService countEstimateService;
+
+    private final ChangeTokenService changeTokenService;
+
+    private final Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StudentService(
+        StudentRepository studentRepository,
+        StudyClassRepository studyClassRepository,
+        TeacherRepository teacherRepository,
+        CountEstimateService countEstimateService,
+        ChangeTokenService changeTokenService,
+        Validator validator
+    ) {
         this.studentRepository = studentRepository;
+        this.studyClassRepository = studyClassRepository;
+        this.teacherRepository = teacherRepository;
+        this.countEstimateService = countEstimateService;
+        this.changeTokenService = changeTokenService;
+        this.validator = validator;
     }
 
     /**
@@ -33,42 +81,214 @@ public class StudentService {
      */
     public Student save(Student student) {
         log.debug("Request to save Student : {}", student);
+        countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+        changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
+        // the study class is checked by the foreign key, not loaded
+        student.setStudyClass(studyClassRepository.getReferenceById(student.getStudyClass().getId()));
         return studentRepository.save(student);
     }
 
     /**
-     * Update a student.
+     * Save a batch of students in one transaction. The referenced study classes are checked with a single
+     * {@code IN} query and the valid students are inserted with JDBC batching, invalid ones are reported
+     * and skipped.
+     *
+     * @param students the entities to save.
+     * @return the result of each student, in request order.
+     */
+    public List<BulkItemResult> saveAll(List<Student> students) {
+        log.debug("Request to save {} Students", students.size());
+        Set<Long> studyClassIds = students
+            .stream()
+            .filter(Objects::nonNull)
+            .map(Student::getStudyClass)
+            .filter(Objects::nonNull)
+            .map(StudyClass::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Set<Long> existingStudyClassIds = studyClassIds.isEmpty()
+            ? Set.of()
+            : new HashSet<>(studyClassRepository.findExistingIds(studyClassIds));
+
+        BulkItemResult[] results = new BulkItemResult[students.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Student> valid = new ArrayList<>();
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            String error = validate(student, existingStudyClassIds);
+            if (error != null) {
+                results[i] = BulkItemResult.rejected(i, null, error);
+                continue;
+            }
+            student.setStudyClass(studyClassRepository.getReferenceById(student.getStudyClass().getId()));
+            validIndexes.add(i);
+            valid.add(student);
+        }
+        if (!valid.isEmpty()) {
+            countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+            changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
+            List<Student> saved = studentRepository.saveAll(valid);
+            for (int i = 0; i < saved.size(); i++) {
+                results[validIndexes.get(i)] = BulkItemResult.created(validIndexes.get(i), saved.get(i).getId());
+            }
+        }
+        return List.of(results);
+    }
+
+    /**
+     * Update a batch of students in one transaction, whatever their version. The students and their study
+     * classes are checked with one {@code IN} query each and the changed students are updated with JDBC
+     * batching, invalid or unknown ones are reported and skipped.
+     *
+     * @param students the entities to update.
+     * @return the result of each student, in request order.
+     */
+    public List<BulkItemResult> updateAll(List<Student> students) {
+        log.debug("Request to update {} Students", students.size());
+        Set<Long> ids = students.stream().filter(Objects::nonNull).map(Student::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Student> existing = ids.isEmpty()
+            ? Map.of()
+            : studentRepository.findAllById(ids).stream().collect(Collectors.toMap(Student::getId, Function.identity()));
+        Set<Long> studyClassIds = students
+            .stream()
+            .filter(Objects::nonNull)
+            .map(Student::getStudyClass)
+            .filter(Objects::nonNull)
+            .map(StudyClass::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Set<Long> existingStudyClassIds = studyClassIds.isEmpty()
+            ? Set.of()
+            : new HashSet<>(studyClassRepository.findExistingIds(studyClassIds));
+
+        List<BulkItemResult> results = new ArrayList<>(students.size());
+        Set<Long> updatedIds = new HashSet<>();
+        for (int i = 0; i < students.size(); i++) {
+            Student student = students.get(i);
+            String error = validateUpdate(student, existingStudyClassIds);
+            if (error != null) {
+                results.add(BulkItemResult.rejected(i, student == null ? null : student.getId(), error));
+                continue;
+            }
+            Student current = existing.get(student.getId());
+            if (current == null) {
+                results.add(BulkItemResult.notFound(i, student.getId()));
+            } else if (!updatedIds.add(student.getId())) {
+                results.add(BulkItemResult.rejected(i, student.getId(), "The student is already updated by this batch"));
+            } else {
+                current.firstName(student.getFirstName()).lastName(student.getLastName());
+                current.setStudyClass(studyClassRepository.getReferenceById(student.getStudyClass().getId()));
+                results.add(BulkItemResult.updated(i, student.getId()));
+            }
+        }
+        if (!updatedIds.isEmpty()) {
+            countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+            changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
+        }
+        return results;
+    }
+
+    /**
+     * Insert a batch of validated students in its own transaction with JDBC batching, then detach them so
+     * that a long running import keeps a bounded persistence context.
+     *
+     * @param students the entities to save, with an existing study class.
+     */
+    public void importBatch(List<Student> students) {
+        log.debug("Request to import {} Students", students.size());
+        countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+        changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
+        for (Student student : students) {
+            student.setStudyClass(studyClassRepository.getReferenceById(student.getStudyClass().getId()));
+        }
+        studentRepository.saveAll(students);
+        studentRepository.flush();
+        entityManager.clear();
+    }
+
+    private String validate(Student student, Set<Long> existingStudyClassIds) {
+        if (student == null) {
+            return "Invalid student";
+        }
+        if (student.getId() != null) {
+            return "A new student cannot already have an ID";
+        }
+        return validateFields(student, existingStudyClassIds);
+    }
+
+    private String validateUpdate(Student student, Set<Long> existingStudyClassIds) {
+        if (student == null) {
+            return "Invalid student";
+        }
+        if (student.getId() == null) {
+            return "Invalid id";
+        }
+        return validateFields(student, existingStudyClassIds);
+    }
+
+    private String validateFields(Student student, Set<Long> existingStudyClassIds) {
+        Set<ConstraintViolation<Student>> violations = validator.validate(student);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Student> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (student.getStudyClass() == null || student.getStudyClass().getId() == null) {
+            return "Study Class is required";
+        }
+        if (!existingStudyClassIds.contains(student.getStudyClass().getId())) {
+            return "Study Class doesn't exist";
+        }
+        return null;
+    }
+
+    /**
+     * Update a student with a single {@code UPDATE} statement.
      *
      * @param student the entity to save.
-     * @return the persisted entity.
+     * @param version the version the client expects, or {@code null} to update any version.
+     * @return the updated student, or empty if no student has this id.
+     * @throws PreconditionFailedException if the student has another version.
      */
-    public Student update(Student student) {
+    public Optional<StudentDTO> update(Student student, Long version) {
         log.debug("Request to update Student : {}", student);
-        return studentRepository.save(student);
+        countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+        changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
+        int updated = VersionedUpdate
+            .of(entityManager, Student.class)
+            .set("firstName", student.getFirstName())
+            .set("lastName", student.getLastName())
+            .set("studyClass", studyClassRepository.getReferenceById(student.getStudyClass().getId()))
+            .execute(student.getId(), version);
+        return updatedStudent(student.getId(), version, updated);
     }
 
     /**
-     * Partially update a student.
+     * Partially update a student with a single {@code UPDATE} statement, null fields are left unchanged.
      *
      * @param student the entity to update partially.
-     * @return the persisted entity.
+     * @param version the version the client expects, or {@code null} to update any version.
+     * @return the updated student, or empty if no student has this id.
+     * @throws PreconditionFailedException if the student has another version.
      */
-    public Optional<Student> partialUpdate(Student student) {
+    public Optional<StudentDTO> partialUpdate(Student student, Long version) {
         log.debug("Request to partially update Student : {}", student);
+        changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
+        int updated = VersionedUpdate
+            .of(entityManager, Student.class)
+            .setIfPresent("firstName", student.getFirstName())
+            .setIfPresent("lastName", student.getLastName())
+            .execute(student.getId(), version);
+        return updatedStudent(student.getId(), version, updated);
+    }
 
-        return studentRepository
-            .findById(student.getId())
-            .map(existingStudent -> {
-                if (student.getFirstName() != null) {
-                    existingStudent.setFirstName(student.getFirstName());
-                }
-                if (student.getLastName() != null) {
-                    existingStudent.setLastName(student.getLastName());
-                }
-
-                return existingStudent;
-            })
-            .map(studentRepository::save);
+    private Optional<StudentDTO> updatedStudent(Long id, Long version, int updated) {
+        if (updated == 0) {
+            if (version != null && studentRepository.existsById(id)) {
+                throw new PreconditionFailedException("The student was modified, version " + version + " is outdated");
+            }
+            return Optional.empty();
+        }
+        return studentRepository.findDTOById(id);
     }
 
     /**
@@ -77,32 +297,98 @@ public class StudentService {
      * @param pageable the pagination information.
      * @param studyClassName StudyClass name
      * @param teacherFullName Teacher full name 'firsName lastName'
-     * @return the list of entities.
+     * @param countMode how the total number of students is computed.
+     * @return the list of students, a {@link Page} unless the count mode is {@link CountMode#NONE}.
      */
     @Transactional(readOnly = true)
-    public Page<Student> findAll(Pageable pageable, String studyClassName, String teacherFullName) {
+    public Slice<StudentDTO> findAll(Pageable pageable, String studyClassName, String teacherFullName, CountMode countMode) {
         log.debug("Request to get all Students");
+        Optional<List<Long>> studyClassIds = resolveStudyClassIds(studyClassName, teacherFullName);
+        if (studyClassIds.isPresent() && studyClassIds.get().isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (countMode == CountMode.EXACT) {
+            return studyClassIds.isEmpty()
+                ? studentRepository.findAllDTOs(pageable)
+                : studentRepository.findDTOsByStudyClassIdIn(studyClassIds.get(), pageable);
+        }
+        Slice<StudentDTO> slice = studyClassIds.isEmpty()
+            ? studentRepository.findDTOSlice(pageable)
+            : studentRepository.findDTOSliceByStudyClassIdIn(studyClassIds.get(), pageable);
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+        long total;
+        if (studyClassIds.isEmpty()) {
+            total = countEstimateService.estimate(CountEstimateService.STUDENT_TABLE, studentRepository::count);
+        } else {
+            List<Long> ids = studyClassIds.get();
+            String filterKey = ids.stream().sorted().map(String::valueOf).collect(Collectors.joining(","));
+            total = countEstimateService.estimate(
+                CountEstimateService.STUDENT_TABLE,
+                filterKey,
+                () -> studentRepository.countByStudyClassIdIn(ids)
+            );
+        }
+        return CountEstimateService.withEstimatedTotal(slice, total);
+    }
+
+    /**
+     * Get a keyset page of students ordered by last name and id.
+     *
+     * @param after the position of the last student of the previous page, or {@code null} for the first page.
+     * @param size the page size.
+     * @param studyClassName StudyClass name
+     * @param teacherFullName Teacher full name 'firsName lastName'
+     * @return the page of students.
+     */
+    @Transactional(readOnly = true)
+    public Slice<StudentDTO> findAllAfter(KeysetCursor after, int size, String studyClassName, String teacherFullName) {
+        log.debug("Request to get a keyset page of Students after : {}", after);
+        Pageable pageable = PageRequest.of(0, size);
+        Optional<List<Long>> studyClassIds = resolveStudyClassIds(studyClassName, teacherFullName);
+        if (studyClassIds.isEmpty()) {
+            return after == null
+                ? studentRepository.findFirstDTOKeyset(pageable)
+                : studentRepository.findDTOKeysetAfter(after.getSortKey(), after.getId(), pageable);
+        }
+        if (studyClassIds.get().isEmpty()) {
+            return new SliceImpl<>(List.of(), pageable, false);
+        }
+        return after == null
+            ? studentRepository.findFirstDTOKeysetByStudyClassIdIn(studyClassIds.get(), pageable)
+            : studentRepository.findDTOKeysetByStudyClassIdInAfter(studyClassIds.get(), after.getSortKey(), after.getId(), pageable);
+    }
+
+    /**
+     * Resolve the student filters to the ids of the matching study classes, so students can be paged
+     * on their indexed {@code study_class_id} column instead of joining the teacher table.
+     *
+     * @param studyClassName StudyClass name
+     * @param teacherFullName Teacher full name 'firsName lastName'
+     * @return the matching study class ids, or empty if no filter is set.
+     */
+    public Optional<List<Long>> resolveStudyClassIds(String studyClassName, String teacherFullName) {
         if (studyClassName != null && teacherFullName != null) {
-        	return studentRepository.findByStudyClassNameAndTeacherFullName(studyClassName, teacherFullName, pageable);
+            return Optional.of(teacherRepository.findStudyClassIdsByFullNameAndStudyClassName(teacherFullName, studyClassName));
         } else if (studyClassName != null) {
-        	return studentRepository.findByStudyClassName(studyClassName, pageable);
+            return Optional.of(studyClassRepository.findIdsByName(studyClassName));
         } else if (teacherFullName != null) {
-        	return studentRepository.findByTeacherFullName(teacherFullName, pageable);
+            return Optional.of(teacherRepository.findStudyClassIdsByFullName(teacherFullName));
         }
-        
-        return studentRepository.findAll(pageable);
+        return Optional.empty();
     }
 
     /**
      * Get one student by id.
      *
      * @param id the id of the entity.
-     * @return the entity.
+     * @return the student.
      */
     @Transactional(readOnly = true)
-    public Optional<Student> findOne(Long id) {
+    public Optional<StudentDTO> findOne(Long id) {
         log.debug("Request to get Student : {}", id);
-        return studentRepository.findById(id);
+        return studentRepository.findDTOById(id);
     }
 
     /**
@@ -112,6 +398,31 @@ public class StudentService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Student : {}", id);
+        countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+        changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
         studentRepository.deleteById(id);
     }
+
+    /**
+     * Delete a batch of students with a single {@code DELETE} statement.
+     *
+     * @param ids the ids of the entities.
+     * @return the result of each id, in request order.
+     */
+    public List<BulkItemResult> deleteAll(List<Long> ids) {
+        log.debug("Request to delete {} Students", ids.size());
+        Set<Long> requestedIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existingIds = requestedIds.isEmpty() ? new HashSet<>() : new HashSet<>(studentRepository.findExistingIds(requestedIds));
+        if (!existingIds.isEmpty()) {
+            countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+            changeTokenService.changed(CountEstimateService.STUDENT_TABLE);
+            studentRepository.deleteByIdIn(existingIds);
+        }
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(existingIds.remove(id) ? BulkItemResult.deleted(i, id) : BulkItemResult.notFound(i, id));
+        }
+        return results;
+    }
 }
@@ -1,12 +1,20 @@
 package com.anywr.ahmedtest.service;
 
 import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.management.CountMode;
+import com.anywr.ahmedtest.management.KeysetCursor;
 import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.service.dto.StudyClassDTO;
+import com.anywr.ahmedtest.web.rest.errors.PreconditionFailedException;
 import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,8 +29,21 @@ public class StudyClassService {
 
     private final StudyClassRepository studyClassRepository;
 
-    public StudyClassService(StudyClassRepository studyClassRepository) {
+    private final CountEstimateService countEstimateService;
+
+    private final ChangeTokenService changeTokenService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public StudyClassService(
+        StudyClassRepository studyClassRepository,
+        CountEstimateService countEstimateService,
+        ChangeTokenService changeTokenService
+    ) {
         this.studyClassRepository = studyClassRepository;
+        this.countEstimateService = countEstimateService;
+        this.changeTokenService = changeTokenService;
     }
 
     /**
@@ -33,63 +54,101 @@ public class StudyClassService {
      */
     public StudyClass save(StudyClass studyClass) {
         log.debug("Request to save StudyClass : {}", studyClass);
+        countEstimateService.invalidate(CountEstimateService.STUDY_CLASS_TABLE);
+        changeTokenService.changed(CountEstimateService.STUDY_CLASS_TABLE);
         return studyClassRepository.save(studyClass);
     }
 
     /**
-     * Update a studyClass.
+     * Update a studyClass with a single {@code UPDATE} statement.
      *
      * @param studyClass the entity to save.
-     * @return the persisted entity.
+     * @param version the version the client expects, or {@code null} to update any version.
+     * @return the updated studyClass, or empty if no studyClass has this id.
+     * @throws PreconditionFailedException if the studyClass has another version.
      */
-    public StudyClass update(StudyClass studyClass) {
+    public Optional<StudyClassDTO> update(StudyClass studyClass, Long version) {
         log.debug("Request to update StudyClass : {}", studyClass);
-        return studyClassRepository.save(studyClass);
+        changeTokenService.changed(CountEstimateService.STUDY_CLASS_TABLE);
+        int updated = VersionedUpdate.of(entityManager, StudyClass.class).set("name", studyClass.getName()).execute(studyClass.getId(), version);
+        return updatedStudyClass(studyClass.getId(), version, updated);
     }
 
     /**
-     * Partially update a studyClass.
+     * Partially update a studyClass with a single {@code UPDATE} statement, null fields are left unchanged.
      *
      * @param studyClass the entity to update partially.
-     * @return the persisted entity.
+     * @param version the version the client expects, or {@code null} to update any version.
+     * @return the updated studyClass, or empty if no studyClass has this id.
+     * @throws PreconditionFailedException if the studyClass has another version.
      */
-    public Optional<StudyClass> partialUpdate(StudyClass studyClass) {
+    public Optional<StudyClassDTO> partialUpdate(StudyClass studyClass, Long version) {
         log.debug("Request to partially update StudyClass : {}", studyClass);
+        changeTokenService.changed(CountEstimateService.STUDY_CLASS_TABLE);
+        int updated = VersionedUpdate
+            .of(entityManager, StudyClass.class)
+            .setIfPresent("name", studyClass.getName())
+            .execute(studyClass.getId(), version);
+        return updatedStudyClass(studyClass.getId(), version, updated);
+    }
 
-        return studyClassRepository
-            .findById(studyClass.getId())
-            .map(existingStudyClass -> {
-                if (studyClass.getName() != null) {
-                    existingStudyClass.setName(studyClass.getName());
-                }
-
-                return existingStudyClass;
-            })
-            .map(studyClassRepository::save);
+    private Optional<StudyClassDTO> updatedStudyClass(Long id, Long version, int updated) {
+        if (updated == 0) {
+            if (version != null && studyClassRepository.existsById(id)) {
+                throw new PreconditionFailedException("The study class was modified, version " + version + " is outdated");
+            }
+            return Optional.empty();
+        }
+        return studyClassRepository.findDTOById(id);
     }
 
     /**
      * Get all the studyClasses.
      *
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @param countMode how the total number of studyClasss is computed.
+     * @return the list of studyClasses, a {@link Page} unless the count mode is {@link CountMode#NONE}.
      */
     @Transactional(readOnly = true)
-    public Page<StudyClass> findAll(Pageable pageable) {
+    public Slice<StudyClassDTO> findAll(Pageable pageable, CountMode countMode) {
         log.debug("Request to get all StudyClasses");
-        return studyClassRepository.findAll(pageable);
+        if (countMode == CountMode.EXACT) {
+            return studyClassRepository.findAllDTOs(pageable);
+        }
+        Slice<StudyClassDTO> slice = studyClassRepository.findDTOSlice(pageable);
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+        long total = countEstimateService.estimate(CountEstimateService.STUDY_CLASS_TABLE, studyClassRepository::count);
+        return CountEstimateService.withEstimatedTotal(slice, total);
+    }
+
+    /**
+     * Get a keyset page of studyClasses ordered by name and id.
+     *
+     * @param after the position of the last studyClass of the previous page, or {@code null} for the first page.
+     * @param size the page size.
+     * @return the page of studyClasses.
+     */
+    @Transactional(readOnly = true)
+    public Slice<StudyClassDTO> findAllAfter(KeysetCursor after, int size) {
+        log.debug("Request to get a keyset page of StudyClasses after : {}", after);
+        Pageable pageable = PageRequest.of(0, size);
+        return after == null
+            ? studyClassRepository.findFirstDTOKeyset(pageable)
+            : studyClassRepository.findDTOKeysetAfter(after.getSortKey(), after.getId(), pageable);
     }
 
     /**
      * Get one studyClass by id.
      *
      * @param id the id of the entity.
-     * @return the entity.
+     * @return the studyClass.
      */
     @Transactional(readOnly = true)
-    public Optional<StudyClass> findOne(Long id) {
+    public Optional<StudyClassDTO> findOne(Long id) {
         log.debug("Request to get StudyClass : {}", id);
-        return studyClassRepository.findById(id);
+        return studyClassRepository.findDTOById(id);
     }
 
     /**
@@ -99,6 +158,8 @@ public class StudyClassService {
      */
     public void delete(Long id) {
         log.debug("Request to delete StudyClass : {}", id);
+        countEstimateService.invalidate(CountEstimateService.STUDY_CLASS_TABLE);
+        changeTokenService.changed(CountEstimateService.STUDY_CLASS_TABLE);
         studyClassRepository.deleteById(id);
     }
 }
@@ -1,12 +1,34 @@
 package com.anywr.ahmedtest.service;
 
+import com.anywr.ahmedtest.domain.StudyClass;
 import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.management.CountMode;
+import com.anywr.ahmedtest.management.KeysetCursor;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
 import com.anywr.ahmedtest.repository.TeacherRepository;
+import com.anywr.ahmedtest.service.dto.BulkItemResult;
+import com.anywr.ahmedtest.service.dto.TeacherDTO;
+import com.anywr.ahmedtest.web.rest.errors.PreconditionFailedException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,8 +43,29 @@ public class TeacherService {
 
     private final TeacherRepository teacherRepository;
 
-    public TeacherService(TeacherRepository teacherRepository) {
+    private final StudyClassRepository studyClassRepository;
+
+    private final CountEstimateService countEstimateService;
+
+    private final ChangeTokenService changeTokenService;
+
+    private final Validator validator;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TeacherService(
+        TeacherRepository teacherRepository,
+        StudyClassRepository studyClassRepository,
+        CountEstimateService countEstimateService,
+        ChangeTokenService changeTokenService,
+        Validator validator
+    ) {
         this.teacherRepository = teacherRepository;
+        this.studyClassRepository = studyClassRepository;
+        this.countEstimateService = countEstimateService;
+        this.changeTokenService = changeTokenService;
+        this.validator = validator;
     }
 
     /**
@@ -33,66 +76,269 @@ public class TeacherService {
      */
     public Teacher save(Teacher teacher) {
         log.debug("Request to save Teacher : {}", teacher);
-        return teacherRepository.save(teacher);
+        countEstimateService.invalidate(CountEstimateService.TEACHER_TABLE);
+        changeTokenService.changed(CountEstimateService.TEACHER_TABLE);
+        // the study class is checked by the foreign key and unique constraints, not loaded
+        teacher.setStudyClass(studyClassRepository.getReferenceById(teacher.getStudyClass().getId()));
+        return teacherRepository.save(teacher.refreshFullName());
+    }
+
+    /**
+     * Save a batch of teachers in one transaction. The referenced study classes, and whether they already
+     * have a teacher, are checked with one {@code IN} query each and the valid teachers are inserted with
+     * JDBC batching, invalid ones are reported and skipped.
+     *
+     * @param teachers the entities to save.
+     * @return the result of each teacher, in request order.
+     */
+    public List<BulkItemResult> saveAll(List<Teacher> teachers) {
+        log.debug("Request to save {} Teachers", teachers.size());
+        Set<Long> studyClassIds = teachers
+            .stream()
+            .filter(Objects::nonNull)
+            .map(Teacher::getStudyClass)
+            .filter(Objects::nonNull)
+            .map(StudyClass::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Set<Long> existingStudyClassIds = new HashSet<>();
+        Set<Long> takenStudyClassIds = new HashSet<>();
+        if (!studyClassIds.isEmpty()) {
+            existingStudyClassIds.addAll(studyClassRepository.findExistingIds(studyClassIds));
+            takenStudyClassIds.addAll(teacherRepository.findTakenStudyClassIds(studyClassIds));
+        }
+
+        BulkItemResult[] results = new BulkItemResult[teachers.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<Teacher> valid = new ArrayList<>();
+        for (int i = 0; i < teachers.size(); i++) {
+            Teacher teacher = teachers.get(i);
+            String error = validate(teacher, existingStudyClassIds, takenStudyClassIds);
+            if (error != null) {
+                results[i] = BulkItemResult.rejected(i, null, error);
+                continue;
+            }
+            // a study class taken by an earlier teacher of the batch is rejected for the next ones
+            takenStudyClassIds.add(teacher.getStudyClass().getId());
+            teacher.setStudyClass(studyClassRepository.getReferenceById(teacher.getStudyClass().getId()));
+            validIndexes.add(i);
+            valid.add(teacher.refreshFullName());
+        }
+        if (!valid.isEmpty()) {
+            countEstimateService.invalidate(CountEstimateService.TEACHER_TABLE);
+            changeTokenService.changed(CountEstimateService.TEACHER_TABLE);
+            List<Teacher> saved = teacherRepository.saveAll(valid);
+            for (int i = 0; i < saved.size(); i++) {
+                results[validIndexes.get(i)] = BulkItemResult.created(validIndexes.get(i), saved.get(i).getId());
+            }
+        }
+        return List.of(results);
     }
 
     /**
-     * Update a teacher.
+     * Update a batch of teachers in one transaction, whatever their version. The teachers, their study classes,
+     * and whether these have another teacher, are checked with one {@code IN} query each and the changed
+     * teachers are updated with JDBC batching, invalid or unknown ones are reported and skipped. A study class
+     * left by a teacher of the batch can't be taken by another one in the same batch.
+     *
+     * @param teachers the entities to update.
+     * @return the result of each teacher, in request order.
+     */
+    public List<BulkItemResult> updateAll(List<Teacher> teachers) {
+        log.debug("Request to update {} Teachers", teachers.size());
+        Set<Long> ids = teachers.stream().filter(Objects::nonNull).map(Teacher::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, Teacher> existing = ids.isEmpty()
+            ? Map.of()
+            : teacherRepository.findAllById(ids).stream().collect(Collectors.toMap(Teacher::getId, Function.identity()));
+        Set<Long> studyClassIds = teachers
+            .stream()
+            .filter(Objects::nonNull)
+            .map(Teacher::getStudyClass)
+            .filter(Objects::nonNull)
+            .map(StudyClass::getId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Set<Long> existingStudyClassIds = new HashSet<>();
+        Set<Long> takenStudyClassIds = new HashSet<>();
+        if (!studyClassIds.isEmpty()) {
+            existingStudyClassIds.addAll(studyClassRepository.findExistingIds(studyClassIds));
+            takenStudyClassIds.addAll(teacherRepository.findTakenStudyClassIds(studyClassIds));
+        }
+
+        List<BulkItemResult> results = new ArrayList<>(teachers.size());
+        Set<Long> updatedIds = new HashSet<>();
+        for (int i = 0; i < teachers.size(); i++) {
+            Teacher teacher = teachers.get(i);
+            String error = validateUpdate(teacher, existingStudyClassIds);
+            if (error != null) {
+                results.add(BulkItemResult.rejected(i, teacher == null ? null : teacher.getId(), error));
+                continue;
+            }
+            Teacher current = existing.get(teacher.getId());
+            Long studyClassId = teacher.getStudyClass().getId();
+            if (current == null) {
+                results.add(BulkItemResult.notFound(i, teacher.getId()));
+            } else if (updatedIds.contains(teacher.getId())) {
+                results.add(BulkItemResult.rejected(i, teacher.getId(), "The teacher is already updated by this batch"));
+            } else if (!studyClassId.equals(current.getStudyClass().getId()) && !takenStudyClassIds.add(studyClassId)) {
+                results.add(BulkItemResult.rejected(i, teacher.getId(), "Study Class has already a teacher"));
+            } else {
+                updatedIds.add(teacher.getId());
+                current.firstName(teacher.getFirstName()).lastName(teacher.getLastName());
+                current.setStudyClass(studyClassRepository.getReferenceById(studyClassId));
+                current.refreshFullName();
+                results.add(BulkItemResult.updated(i, teacher.getId()));
+            }
+        }
+        if (!updatedIds.isEmpty()) {
+            changeTokenService.changed(CountEstimateService.TEACHER_TABLE);
+        }
+        return results;
+    }
+
+    private String validate(Teacher teacher, Set<Long> existingStudyClassIds, Set<Long> takenStudyClassIds) {
+        if (teacher == null) {
+            return "Invalid teacher";
+        }
+        if (teacher.getId() != null) {
+            return "A new teacher cannot already have an ID";
+        }
+        String error = validateFields(teacher, existingStudyClassIds);
+        if (error == null && takenStudyClassIds.contains(teacher.getStudyClass().getId())) {
+            return "Study Class has already a teacher";
+        }
+        return error;
+    }
+
+    private String validateUpdate(Teacher teacher, Set<Long> existingStudyClassIds) {
+        if (teacher == null) {
+            return "Invalid teacher";
+        }
+        if (teacher.getId() == null) {
+            return "Invalid id";
+        }
+        return validateFields(teacher, existingStudyClassIds);
+    }
+
+    private String validateFields(Teacher teacher, Set<Long> existingStudyClassIds) {
+        Set<ConstraintViolation<Teacher>> violations = validator.validate(teacher);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<Teacher> violation = violations.iterator().next();
+            return violation.getPropertyPath() + " " + violation.getMessage();
+        }
+        if (teacher.getStudyClass() == null || teacher.getStudyClass().getId() == null) {
+            return "Study Class is required";
+        }
+        if (!existingStudyClassIds.contains(teacher.getStudyClass().getId())) {
+            return "Study Class doesn't exist";
+        }
+        return null;
+    }
+
+    /**
+     * Update a teacher with a single {@code UPDATE} statement.
      *
      * @param teacher the entity to save.
-     * @return the persisted entity.
+     * @param version the version the client expects, or {@code null} to update any version.
+     * @return the updated teacher, or empty if no teacher has this id.
+     * @throws PreconditionFailedException if the teacher has another version.
      */
-    public Teacher update(Teacher teacher) {
+    public Optional<TeacherDTO> update(Teacher teacher, Long version) {
         log.debug("Request to update Teacher : {}", teacher);
-        return teacherRepository.save(teacher);
+        changeTokenService.changed(CountEstimateService.TEACHER_TABLE);
+        int updated = VersionedUpdate
+            .of(entityManager, Teacher.class)
+            .set("firstName", teacher.getFirstName())
+            .set("lastName", teacher.getLastName())
+            .set("fullName", Teacher.fullNameOf(teacher.getFirstName(), teacher.getLastName()))
+            .set("studyClass", studyClassRepository.getReferenceById(teacher.getStudyClass().getId()))
+            .execute(teacher.getId(), version);
+        return updatedTeacher(teacher.getId(), version, updated);
     }
 
     /**
-     * Partially update a teacher.
+     * Partially update a teacher with a single {@code UPDATE} statement, null fields are left unchanged.
      *
      * @param teacher the entity to update partially.
-     * @return the persisted entity.
+     * @param version the version the client expects, or {@code null} to update any version.
+     * @return the updated teacher, or empty if no teacher has this id.
+     * @throws PreconditionFailedException if the teacher has another version.
      */
-    public Optional<Teacher> partialUpdate(Teacher teacher) {
+    public Optional<TeacherDTO> partialUpdate(Teacher teacher, Long version) {
         log.debug("Request to partially update Teacher : {}", teacher);
+        changeTokenService.changed(CountEstimateService.TEACHER_TABLE);
+        VersionedUpdate<Teacher> update = VersionedUpdate
+            .of(entityManager, Teacher.class)
+            .setIfPresent("firstName", teacher.getFirstName())
+            .setIfPresent("lastName", teacher.getLastName());
+        if (teacher.getFirstName() != null || teacher.getLastName() != null) {
+            CriteriaBuilder cb = update.criteriaBuilder();
+            update.set(
+                "fullName",
+                cb.concat(cb.concat(update.valueOr("firstName", teacher.getFirstName()), " "), update.valueOr("lastName", teacher.getLastName()))
+            );
+        }
+        int updated = update.execute(teacher.getId(), version);
+        return updatedTeacher(teacher.getId(), version, updated);
+    }
 
-        return teacherRepository
-            .findById(teacher.getId())
-            .map(existingTeacher -> {
-                if (teacher.getFirstName() != null) {
-                    existingTeacher.setFirstName(teacher.getFirstName());
-                }
-                if (teacher.getLastName() != null) {
-                    existingTeacher.setLastName(teacher.getLastName());
-                }
-
-                return existingTeacher;
-            })
-            .map(teacherRepository::save);
+    private Optional<TeacherDTO> updatedTeacher(Long id, Long version, int updated) {
+        if (updated == 0) {
+            if (version != null && teacherRepository.existsById(id)) {
+                throw new PreconditionFailedException("The teacher was modified, version " + version + " is outdated");
+            }
+            return Optional.empty();
+        }
+        return teacherRepository.findDTOById(id);
     }
 
     /**
      * Get all the teachers.
      *
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @param countMode how the total number of teachers is computed.
+     * @return the list of teachers, a {@link Page} unless the count mode is {@link CountMode#NONE}.
      */
     @Transactional(readOnly = true)
-    public Page<Teacher> findAll(Pageable pageable) {
+    public Slice<TeacherDTO> findAll(Pageable pageable, CountMode countMode) {
         log.debug("Request to get all Teachers");
-        return teacherRepository.findAll(pageable);
+        if (countMode == CountMode.EXACT) {
+            return teacherRepository.findAllDTOs(pageable);
+        }
+        Slice<TeacherDTO> slice = teacherRepository.findDTOSlice(pageable);
+        if (countMode == CountMode.NONE) {
+            return slice;
+        }
+        long total = countEstimateService.estimate(CountEstimateService.TEACHER_TABLE, teacherRepository::count);
+        return CountEstimateService.withEstimatedTotal(slice, total);
+    }
+
+    /**
+     * Get a keyset page of teachers ordered by last name and id.
+     *
+     * @param after the position of the last teacher of the previous page, or {@code null} for the first page.
+     * @param size the page size.
+     * @return the page of teachers.
+     */
+    @Transactional(readOnly = true)
+    public Slice<TeacherDTO> findAllAfter(KeysetCursor after, int size) {
+        log.debug("Request to get a keyset page of Teachers after : {}", after);
+        Pageable pageable = PageRequest.of(0, size);
+        return after == null
+            ? teacherRepository.findFirstDTOKeyset(pageable)
+            : teacherRepository.findDTOKeysetAfter(after.getSortKey(), after.getId(), pageable);
     }
 
     /**
      * Get one teacher by id.
      *
      * @param id the id of the entity.
-     * @return the entity.
+     * @return the teacher.
      */
     @Transactional(readOnly = true)
-    public Optional<Teacher> findOne(Long id) {
+    public Optional<TeacherDTO> findOne(Long id) {
         log.debug("Request to get Teacher : {}", id);
-        return teacherRepository.findById(id);
+        return teacherRepository.findDTOById(id);
     }
 
     /**
@@ -102,8 +348,33 @@ public class TeacherService {
      */
     public void delete(Long id) {
         log.debug("Request to delete Teacher : {}", id);
+        countEstimateService.invalidate(CountEstimateService.TEACHER_TABLE);
+        changeTokenService.changed(CountEstimateService.TEACHER_TABLE);
         teacherRepository.deleteById(id);
     }
+
+    /**
+     * Delete a batch of teachers with a single {@code DELETE} statement.
+     *
+     * @param ids the ids of the entities.
+     * @return the result of each id, in request order.
+     */
+    public List<BulkItemResult> deleteAll(List<Long> ids) {
+        log.debug("Request to delete {} Teachers", ids.size());
+        Set<Long> requestedIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> existingIds = requestedIds.isEmpty() ? new HashSet<>() : new HashSet<>(teacherRepository.findExistingIds(requestedIds));
+        if (!existingIds.isEmpty()) {
+            countEstimateService.invalidate(CountEstimateService.TEACHER_TABLE);
+            changeTokenService.changed(CountEstimateService.TEACHER_TABLE);
+            teacherRepository.deleteByIdIn(existingIds);
+        }
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results.add(existingIds.remove(id) ? BulkItemResult.deleted(i, id) : BulkItemResult.notFound(i, id));
+        }
+        return results;
+    }
     
     /**
      * Get one teacher by study class id.
@@ -1,14 +1,19 @@
 package com.anywr.ahmedtest.service;
 
+import com.anywr.ahmedtest.domain.Authority;
 import com.anywr.ahmedtest.domain.User;
+import com.anywr.ahmedtest.repository.AuthorityRepository;
 import com.anywr.ahmedtest.repository.UserRepository;
+import com.anywr.ahmedtest.security.AuthoritiesConstants;
 import com.anywr.ahmedtest.service.dto.UserDTO;
 import com.anywr.ahmedtest.web.rest.errors.LoginAlreadyUsedException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -24,11 +29,30 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    private final UserCache userCache;
+
+    private final AuthorityRepository authorityRepository;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        UserCache userCache,
+        AuthorityRepository authorityRepository
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.authorityRepository = authorityRepository;
     }
 
+    /**
+     * Register a user. The password is hashed outside of any transaction, so that a user waiting for a hashing
+     * thread doesn't hold a database connection; a concurrent registration of the same login is rejected by the
+     * {@code ux_users_login} constraint.
+     *
+     * @throws IllegalStateException if the {@code ROLE_USER} authority is missing.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(UserDTO userDTO, String password) {
         log.info("create a new user");
         userRepository
@@ -37,12 +61,18 @@ public class UserService {
                 throw new LoginAlreadyUsedException();
             });
         log.info("user not found");
+        // seeded by the V7 migration, a user registered without it could never use the API
+        Authority userAuthority = authorityRepository
+            .findById(AuthoritiesConstants.USER)
+            .orElseThrow(() -> new IllegalStateException("Authority " + AuthoritiesConstants.USER + " is missing"));
         User newUser = new User();
         String encryptedPassword = passwordEncoder.encode(password);
         newUser.setLogin(userDTO.getLogin().toLowerCase());
         // new user gets initially a generated password
         newUser.setPassword(encryptedPassword);
+        newUser.getAuthorities().add(userAuthority);
         userRepository.save(newUser);
+        userCache.removeUserFromCache(newUser.getLogin());
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
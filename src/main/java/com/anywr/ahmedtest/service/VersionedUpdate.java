@@ -0,0 +1,110 @@
+package com.anywr.ahmedtest.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+/**
+ * A single {@code UPDATE} statement of a versioned entity by id, which sets the given attributes and increments the
+ * version, optionally only if the row still has the version the client expects.
+ * <p>
+ * The statement only holds the attributes that are set: a missing field or version is left out of the SQL rather
+ * than passed as a {@code null} parameter, whose type the database can't infer.
+ *
+ * @param <T> the entity type.
+ */
+final class VersionedUpdate<T> {
+
+    private final EntityManager entityManager;
+
+    private final CriteriaBuilder criteriaBuilder;
+
+    private final CriteriaUpdate<T> update;
+
+    private final Root<T> root;
+
+    private VersionedUpdate(EntityManager entityManager, Class<T> entityClass) {
+        this.entityManager = entityManager;
+        this.criteriaBuilder = entityManager.getCriteriaBuilder();
+        this.update = criteriaBuilder.createCriteriaUpdate(entityClass);
+        this.root = update.from(entityClass);
+    }
+
+    static <T> VersionedUpdate<T> of(EntityManager entityManager, Class<T> entityClass) {
+        return new VersionedUpdate<>(entityManager, entityClass);
+    }
+
+    /**
+     * Set an attribute.
+     *
+     * @param attribute the attribute name.
+     * @param value the new value.
+     * @return this update.
+     */
+    <Y> VersionedUpdate<T> set(String attribute, Y value) {
+        update.set(attribute, value);
+        return this;
+    }
+
+    /**
+     * Set an attribute to a value computed by the database.
+     *
+     * @param attribute the attribute name.
+     * @param value the new value.
+     * @return this update.
+     */
+    <Y> VersionedUpdate<T> set(String attribute, Expression<Y> value) {
+        Path<Y> path = root.get(attribute);
+        update.set(path, value);
+        return this;
+    }
+
+    /**
+     * Set an attribute unless the value is {@code null}.
+     *
+     * @param attribute the attribute name.
+     * @param value the new value, {@code null} to leave the attribute unchanged.
+     * @return this update.
+     */
+    <Y> VersionedUpdate<T> setIfPresent(String attribute, Y value) {
+        return value != null ? set(attribute, value) : this;
+    }
+
+    /**
+     * @param attribute the attribute name.
+     * @param value a new value, may be {@code null}.
+     * @return the new value if present, otherwise the current value of the attribute.
+     */
+    Expression<String> valueOr(String attribute, String value) {
+        return value != null ? criteriaBuilder.literal(value) : root.get(attribute);
+    }
+
+    CriteriaBuilder criteriaBuilder() {
+        return criteriaBuilder;
+    }
+
+    /**
+     * Run the statement.
+     *
+     * @param id the id of the entity.
+     * @param version the version the client expects, or {@code null} to update any version.
+     * @return the number of updated rows, {@code 0} if no entity has this id and version.
+     */
+    int execute(Long id, Long version) {
+        Path<Long> currentVersion = root.get("version");
+        update.set(currentVersion, criteriaBuilder.sum(currentVersion, 1L));
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(criteriaBuilder.equal(root.get("id"), id));
+        if (version != null) {
+            predicates.add(criteriaBuilder.equal(currentVersion, version));
+        }
+        update.where(predicates.toArray(new Predicate[0]));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,73 @@
+package com.anywr.ahmedtest.service.dto;
+
+import java.io.Serializable;
+import org.springframework.http.HttpStatus;
+
+/**
+ * The outcome of one item of a bulk request, identified by its position in the request body.
+ */
+public class BulkItemResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    private final Long id;
+
+    private final int status;
+
+    private final String message;
+
+    private BulkItemResult(int index, Long id, HttpStatus status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status.value();
+        this.message = message;
+    }
+
+    public static BulkItemResult created(int index, Long id) {
+        return new BulkItemResult(index, id, HttpStatus.CREATED, null);
+    }
+
+    public static BulkItemResult updated(int index, Long id) {
+        return new BulkItemResult(index, id, HttpStatus.OK, null);
+    }
+
+    public static BulkItemResult deleted(int index, Long id) {
+        return new BulkItemResult(index, id, HttpStatus.NO_CONTENT, null);
+    }
+
+    public static BulkItemResult notFound(int index, Long id) {
+        return new BulkItemResult(index, id, HttpStatus.NOT_FOUND, "Entity not found");
+    }
+
+    public static BulkItemResult rejected(int index, Long id, String message) {
+        return new BulkItemResult(index, id, HttpStatus.BAD_REQUEST, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkItemResult{" +
+            "index=" + getIndex() +
+            ", id=" + getId() +
+            ", status=" + getStatus() +
+            "}";
+    }
+}
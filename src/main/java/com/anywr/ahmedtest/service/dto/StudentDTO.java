@@ -0,0 +1,82 @@
+package com.anywr.ahmedtest.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.io.Serializable;
+
+/**
+ * A read model of {@link com.anywr.ahmedtest.domain.Student}, selected directly by the repositories.
+ */
+public class StudentDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    @JsonIgnoreProperties(value = { "teacher" })
+    private final StudyClassDTO studyClass;
+
+    private final String versionTag;
+
+    public StudentDTO(Long id, String firstName, String lastName, Long studyClassId, String studyClassName) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.studyClass = new StudyClassDTO(studyClassId, studyClassName);
+        this.versionTag = null;
+    }
+
+    public StudentDTO(
+        Long id,
+        String firstName,
+        String lastName,
+        Long studyClassId,
+        String studyClassName,
+        Long version,
+        Long studyClassVersion
+    ) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.studyClass = new StudyClassDTO(studyClassId, studyClassName);
+        this.versionTag = version + "-" + studyClassVersion;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public StudyClassDTO getStudyClass() {
+        return studyClass;
+    }
+
+    /**
+     * @return the versions of the student and of its study class, only selected for single students.
+     */
+    @JsonIgnore
+    public String getVersionTag() {
+        return versionTag;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StudentDTO{" +
+            "id=" + getId() +
+            ", firstName='" + getFirstName() + "'" +
+            ", lastName='" + getLastName() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,53 @@
+package com.anywr.ahmedtest.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.io.Serializable;
+
+/**
+ * One row of a student import file, with the study class given by name.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StudentImportRow implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String studyClassName;
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getStudyClassName() {
+        return studyClassName;
+    }
+
+    public void setStudyClassName(String studyClassName) {
+        this.studyClassName = studyClassName;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StudentImportRow{" +
+            "firstName='" + getFirstName() + "'" +
+            ", lastName='" + getLastName() + "'" +
+            ", studyClassName='" + getStudyClassName() + "'" +
+            "}";
+    }
+}
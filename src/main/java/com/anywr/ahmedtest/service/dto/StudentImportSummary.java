@@ -0,0 +1,79 @@
+package com.anywr.ahmedtest.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a student import: row counts, the first rejected rows and, if the file could not be
+ * read to the end, the reason the import stopped.
+ */
+public class StudentImportSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // only the first errors are kept so the summary does not grow with the file
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long rows;
+
+    private long imported;
+
+    private long rejected;
+
+    private final List<BulkItemResult> errors = new ArrayList<>();
+
+    private String abortedReason;
+
+    public void addImported(int count) {
+        this.rows += count;
+        this.imported += count;
+    }
+
+    public void addRejected(BulkItemResult error) {
+        this.rows++;
+        this.rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public void abort(String reason) {
+        this.abortedReason = reason;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<BulkItemResult> getErrors() {
+        return errors;
+    }
+
+    public String getAbortedReason() {
+        return abortedReason;
+    }
+
+    public boolean isComplete() {
+        return abortedReason == null;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StudentImportSummary{" +
+            "rows=" + getRows() +
+            ", imported=" + getImported() +
+            ", rejected=" + getRejected() +
+            ", abortedReason='" + getAbortedReason() + "'" +
+            "}";
+    }
+}
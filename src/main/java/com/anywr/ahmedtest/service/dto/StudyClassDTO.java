@@ -0,0 +1,81 @@
+package com.anywr.ahmedtest.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.io.Serializable;
+
+/**
+ * A read model of {@link com.anywr.ahmedtest.domain.StudyClass}, selected directly by the repositories.
+ */
+public class StudyClassDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String name;
+
+    @JsonIgnoreProperties(value = { "studyClass" })
+    private final TeacherDTO teacher;
+
+    private final String versionTag;
+
+    public StudyClassDTO(Long id, String name) {
+        this.id = id;
+        this.name = name;
+        this.teacher = null;
+        this.versionTag = null;
+    }
+
+    public StudyClassDTO(Long id, String name, Long teacherId, String teacherFirstName, String teacherLastName) {
+        this.id = id;
+        this.name = name;
+        this.teacher = teacherId != null ? new TeacherDTO(teacherId, teacherFirstName, teacherLastName) : null;
+        this.versionTag = null;
+    }
+
+    public StudyClassDTO(
+        Long id,
+        String name,
+        Long teacherId,
+        String teacherFirstName,
+        String teacherLastName,
+        Long version,
+        Long teacherVersion
+    ) {
+        this.id = id;
+        this.name = name;
+        this.teacher = teacherId != null ? new TeacherDTO(teacherId, teacherFirstName, teacherLastName) : null;
+        // the teacher id tells apart a replaced teacher that has the same version
+        this.versionTag = teacherId != null ? version + "-" + teacherId + "." + teacherVersion : String.valueOf(version);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public TeacherDTO getTeacher() {
+        return teacher;
+    }
+
+    /**
+     * @return the versions of the study class and of its teacher, only selected for single study classes.
+     */
+    @JsonIgnore
+    public String getVersionTag() {
+        return versionTag;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StudyClassDTO{" +
+            "id=" + getId() +
+            ", name='" + getName() + "'" +
+            "}";
+    }
+}
@@ -1,26 +1,44 @@
 package com.anywr.ahmedtest.web.rest;
 
+import com.anywr.ahmedtest.config.Constants;
 import com.anywr.ahmedtest.domain.Student;
-import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.management.CountMode;
+import com.anywr.ahmedtest.management.ETagUtil;
+import com.anywr.ahmedtest.management.KeysetCursor;
 import com.anywr.ahmedtest.management.PaginationUtil;
-import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.management.SqlBudget;
+import com.anywr.ahmedtest.service.ChangeTokenService;
+import com.anywr.ahmedtest.service.StudentExportService;
+import com.anywr.ahmedtest.service.StudentImportService;
 import com.anywr.ahmedtest.service.StudentService;
-import com.anywr.ahmedtest.service.StudyClassService;
+import com.anywr.ahmedtest.service.dto.BulkItemResult;
+import com.anywr.ahmedtest.service.dto.StudentDTO;
+import com.anywr.ahmedtest.service.dto.StudentImportSummary;
 import com.anywr.ahmedtest.web.rest.errors.BadRequestAlertException;
+import com.anywr.ahmedtest.web.rest.errors.PreconditionFailedException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -34,15 +52,18 @@ public class StudentResource {
 
 	private final StudentService studentService;
 
-	private final StudentRepository studentRepository;
+	private final ChangeTokenService changeTokenService;
 
-	private final StudyClassService studyClassService;
+	private final StudentImportService studentImportService;
 
-	public StudentResource(StudentService studentService, StudentRepository studentRepository,
-			StudyClassService studyClassService) {
+	private final StudentExportService studentExportService;
+
+	public StudentResource(StudentService studentService, StudentImportService studentImportService,
+			StudentExportService studentExportService, ChangeTokenService changeTokenService) {
 		this.studentService = studentService;
-		this.studentRepository = studentRepository;
-		this.studyClassService = studyClassService;
+		this.studentImportService = studentImportService;
+		this.studentExportService = studentExportService;
+		this.changeTokenService = changeTokenService;
 	}
 
 	/**
@@ -51,7 +72,7 @@ public class StudentResource {
 	 * @param studentDTO the studentDTO to create.
 	 * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with
 	 *         body the new studentDTO, or with status {@code 400 (Bad Request)} if
-	 *         the student has already an ID.
+	 *         the student has already an ID or its study class doesn't exist.
 	 * @throws URISyntaxException if the Location URI syntax is incorrect.
 	 */
 	@PostMapping("/students")
@@ -61,26 +82,78 @@ public class StudentResource {
 		if (student.getId() != null) {
 			throw new BadRequestAlertException("A new student cannot already have an ID");
 		}
-		this.checkStudyClassExistance(student);
 		Student result = studentService.save(student);
 		return ResponseEntity.created(new URI("/api/students/" + result.getId())).body(result);
 	}
 
+	/**
+	 * {@code POST  /students/bulk} : Create a batch of students in one transaction.
+	 *
+	 * @param students the students to create.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the result of each student, or with status {@code 400 (Bad Request)} if
+	 *         the batch is too large.
+	 */
+	@PostMapping("/students/bulk")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<List<BulkItemResult>> createStudents(@RequestBody List<Student> students) {
+		log.debug("REST request to save {} Students", students.size());
+		checkBulkSize(students);
+		return ResponseEntity.ok().body(studentService.saveAll(students));
+	}
+
+	/**
+	 * {@code POST  /students/import} : Import students from a CSV file with a
+	 * {@code firstName,lastName,studyClassName} header.
+	 *
+	 * @param body the CSV content, read as it is uploaded.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the import summary.
+	 * @throws IOException if the request body can't be read.
+	 */
+	@PostMapping(value = "/students/import", consumes = "text/csv")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<StudentImportSummary> importStudentsCsv(InputStream body) throws IOException {
+		log.debug("REST request to import Students from CSV");
+		return ResponseEntity.ok().body(studentImportService.importCsv(body));
+	}
+
+	/**
+	 * {@code POST  /students/import} : Import students from newline delimited JSON,
+	 * one {@code {firstName, lastName, studyClassName}} object per line.
+	 *
+	 * @param body the NDJSON content, read as it is uploaded.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the import summary.
+	 * @throws IOException if the request body can't be read.
+	 */
+	@PostMapping(value = "/students/import", consumes = "application/x-ndjson")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<StudentImportSummary> importStudentsNdjson(InputStream body) throws IOException {
+		log.debug("REST request to import Students from NDJSON");
+		return ResponseEntity.ok().body(studentImportService.importNdjson(body));
+	}
+
 	/**
 	 * {@code PUT  /students/:id} : Updates an existing student.
 	 *
 	 * @param id         the id of the studentDTO to save.
 	 * @param studentDTO the studentDTO to update.
+	 * @param ifMatch    the {@code If-Match} header, the entity tag of the version
+	 *                   the client updates.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
 	 *         the updated studentDTO, or with status {@code 400 (Bad Request)} if
-	 *         the studentDTO is not valid, or with status
-	 *         {@code 500 (Internal Server Error)} if the studentDTO couldn't be
-	 *         updated.
+	 *         the studentDTO is not valid, is not found or references a study
+	 *         class that doesn't exist.
+	 * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if the
+	 *                                     entity has another version than
+	 *                                     {@code If-Match}.
 	 * @throws URISyntaxException if the Location URI syntax is incorrect.
 	 */
 	@PutMapping("/students/{id}")
-	public ResponseEntity<Student> updateStudent(@PathVariable(value = "id", required = false) final Long id,
-			@Valid @RequestBody Student studentDTO) throws URISyntaxException {
+	public ResponseEntity<StudentDTO> updateStudent(@PathVariable(value = "id", required = false) final Long id,
+			@Valid @RequestBody Student studentDTO,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
 		log.debug("REST request to update Student : {}, {}", id, studentDTO);
 		if (studentDTO.getId() == null) {
 			throw new BadRequestAlertException("Invalid id");
@@ -89,14 +162,10 @@ public class StudentResource {
 			throw new BadRequestAlertException("Invalid ID");
 		}
 
-		if (!studentRepository.existsById(id)) {
-			throw new BadRequestAlertException("Entity not found");
-		}
-
-		this.checkStudyClassExistance(studentDTO);
-
-		Student result = studentService.update(studentDTO);
-		return ResponseEntity.ok().body(result);
+		Optional<StudentDTO> result = studentService.update(studentDTO, ETagUtil.expectedVersion(ifMatch));
+		return result
+				.map(studentRes -> ResponseEntity.ok().eTag(ETagUtil.strong(studentRes.getVersionTag())).body(studentRes))
+				.orElseThrow(() -> new BadRequestAlertException("Entity not found"));
 	}
 
 	/**
@@ -105,17 +174,23 @@ public class StudentResource {
 	 *
 	 * @param id         the id of the studentDTO to save.
 	 * @param studentDTO the studentDTO to update.
+	 * @param ifMatch    the {@code If-Match} header, the entity tag of the version
+	 *                   the client updates.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
 	 *         the updated studentDTO, or with status {@code 400 (Bad Request)} if
 	 *         the studentDTO is not valid, or with status {@code 404 (Not Found)}
 	 *         if the studentDTO is not found, or with status
 	 *         {@code 500 (Internal Server Error)} if the studentDTO couldn't be
 	 *         updated.
+	 * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if the
+	 *                                     entity has another version than
+	 *                                     {@code If-Match}.
 	 * @throws URISyntaxException if the Location URI syntax is incorrect.
 	 */
 	@PatchMapping(value = "/students/{id}", consumes = { "application/json", "application/merge-patch+json" })
-	public ResponseEntity<Student> partialUpdateStudent(@PathVariable(value = "id", required = false) final Long id,
-			@NotNull @RequestBody Student studentDTO) throws URISyntaxException {
+	public ResponseEntity<StudentDTO> partialUpdateStudent(@PathVariable(value = "id", required = false) final Long id,
+			@NotNull @RequestBody Student studentDTO,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
 		log.debug("REST request to partial update Student partially : {}, {}", id, studentDTO);
 		if (studentDTO.getId() == null) {
 			throw new BadRequestAlertException("Invalid id");
@@ -124,31 +199,116 @@ public class StudentResource {
 			throw new BadRequestAlertException("Invalid ID");
 		}
 
-		if (!studentRepository.existsById(id)) {
-			throw new BadRequestAlertException("Entity not found");
-		}
-
-		Optional<Student> result = studentService.partialUpdate(studentDTO);
-		return result.map(studentRes -> ResponseEntity.ok().body(studentRes))
-				.orElseThrow(() -> new BadRequestAlertException("student not found"));
+		Optional<StudentDTO> result = studentService.partialUpdate(studentDTO, ETagUtil.expectedVersion(ifMatch));
+		return result
+				.map(studentRes -> ResponseEntity.ok().eTag(ETagUtil.strong(studentRes.getVersionTag())).body(studentRes))
+				.orElseThrow(() -> new BadRequestAlertException("Entity not found"));
 	}
 
 	/**
 	 * {@code GET  /students} : get all the students.
 	 *
 	 * @param pageable the pagination information.
+	 * @param count    {@code none}, {@code exact} (default) or {@code estimate}:
+	 *                 how the {@code X-Total-Count} header is computed.
+	 * @param request  the request, answered with {@code 304 (Not Modified)} when
+	 *                 the list didn\'t change since its {@code If-None-Match} tag.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list
 	 *         of students in body.
 	 */
 	@GetMapping("/students")
-	public ResponseEntity<List<Student>> getAllStudents(Pageable pageable,
+	@SqlBudget(statements = 3)
+	public ResponseEntity<List<StudentDTO>> getAllStudents(Pageable pageable,
 			@RequestParam(value = "studyClassName", required = false) String studyClassName,
-			@RequestParam(value = "teacherFullName", required = false) String teacherFullName) {
+			@RequestParam(value = "teacherFullName", required = false) String teacherFullName,
+			@RequestParam(value = "count", required = false) String count, WebRequest request) {
 		log.debug("REST request to get a page of Students");
-		Page<Student> page = studentService.findAll(pageable, studyClassName, teacherFullName);
+		String eTag = ETagUtil.strong(changeTokenService.studentsToken());
+		if (request.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		Slice<StudentDTO> page = studentService.findAll(pageable, studyClassName, teacherFullName,
+				CountMode.fromParameter(count));
 		HttpHeaders headers = PaginationUtil
 				.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-		return ResponseEntity.ok().headers(headers).body(page.getContent());
+		return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
+	}
+
+	/**
+	 * {@code GET  /students/export} : export all the students, ordered by id, without
+	 * pagination. The rows are streamed from the database to the response, and the
+	 * response is gzipped when the client accepts it.
+	 *
+	 * @param format         {@code ndjson} (default) or {@code csv}.
+	 * @param acceptEncoding the {@code Accept-Encoding} request header.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the
+	 *         students in body.
+	 */
+	@GetMapping("/students/export")
+	public ResponseEntity<StreamingResponseBody> exportStudents(
+			@RequestParam(value = "studyClassName", required = false) String studyClassName,
+			@RequestParam(value = "teacherFullName", required = false) String teacherFullName,
+			@RequestParam(value = "format", defaultValue = "ndjson") String format,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		log.debug("REST request to export Students as {}", format);
+		boolean csv;
+		if ("csv".equalsIgnoreCase(format)) {
+			csv = true;
+		} else if ("ndjson".equalsIgnoreCase(format)) {
+			csv = false;
+		} else {
+			throw new BadRequestAlertException("Invalid format, expected one of ndjson, csv");
+		}
+		boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+		StreamingResponseBody body = out -> {
+			OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+			if (csv) {
+				studentExportService.exportCsv(target, studyClassName, teacherFullName);
+			} else {
+				studentExportService.exportNdjson(target, studyClassName, teacherFullName);
+			}
+			if (gzip) {
+				((GZIPOutputStream) target).finish();
+			}
+		};
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"));
+		headers.setContentDisposition(
+				ContentDisposition.attachment().filename(csv ? "students.csv" : "students.ndjson").build());
+		headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip) {
+			headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return ResponseEntity.ok().headers(headers).body(body);
+	}
+
+	/**
+	 * {@code GET  /students?after=:cursor} : get a keyset page of the students,
+	 * ordered by last name and id. An empty cursor requests the first page.
+	 *
+	 * @param after    the cursor of the {@code next} link of the previous page.
+	 * @param pageable the pagination information, only the page size is used.
+	 * @param request  the request, answered with {@code 304 (Not Modified)} when
+	 *                 the list didn\'t change since its {@code If-None-Match} tag.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list
+	 *         of students in body.
+	 */
+	@GetMapping(value = "/students", params = "after")
+	@SqlBudget(statements = 2)
+	public ResponseEntity<List<StudentDTO>> getStudentsAfter(@RequestParam("after") String after, Pageable pageable,
+			@RequestParam(value = "studyClassName", required = false) String studyClassName,
+			@RequestParam(value = "teacherFullName", required = false) String teacherFullName, WebRequest request) {
+		log.debug("REST request to get a keyset page of Students after : {}", after);
+		String eTag = ETagUtil.strong(changeTokenService.studentsToken());
+		if (request.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		Slice<StudentDTO> slice = studentService.findAllAfter(KeysetCursor.decode(after), pageable.getPageSize(),
+				studyClassName, teacherFullName);
+		HttpHeaders headers = PaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(),
+				slice, student -> KeysetCursor.of(student.getLastName(), student.getId()));
+		return ResponseEntity.ok().headers(headers).eTag(eTag).body(slice.getContent());
 	}
 
 	/**
@@ -159,10 +319,12 @@ public class StudentResource {
 	 *         the studentDTO, or with status {@code 404 (Not Found)}.
 	 */
 	@GetMapping("/students/{id}")
-	public ResponseEntity<Student> getStudent(@PathVariable Long id) {
+	@SqlBudget(statements = 1)
+	public ResponseEntity<StudentDTO> getStudent(@PathVariable Long id) {
 		log.debug("REST request to get Student : {}", id);
-		Optional<Student> studentDTO = studentService.findOne(id);
-		return studentDTO.map(studentRes -> ResponseEntity.ok().body(studentRes))
+		Optional<StudentDTO> studentDTO = studentService.findOne(id);
+		return studentDTO
+				.map(studentRes -> ResponseEntity.ok().eTag(ETagUtil.strong(studentRes.getVersionTag())).body(studentRes))
 				.orElseThrow(() -> new BadRequestAlertException("student not found"));
 	}
 
@@ -179,10 +341,42 @@ public class StudentResource {
 		return ResponseEntity.noContent().build();
 	}
 
-	private void checkStudyClassExistance(Student student) {
-		Optional<StudyClass> studyClass = this.studyClassService.findOne(student.getStudyClass().getId());
-		if (studyClass.isEmpty()) {
-			throw new BadRequestAlertException("Study Class doesn't exist");
+	/**
+	 * {@code PUT  /students/bulk} : Update a batch of students in one transaction,
+	 * whatever their version.
+	 *
+	 * @param students the students to update.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the result of each student, or with status {@code 400 (Bad Request)} if
+	 *         the batch is too large.
+	 */
+	@PutMapping("/students/bulk")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<List<BulkItemResult>> updateStudents(@RequestBody List<Student> students) {
+		log.debug("REST request to update {} Students", students.size());
+		checkBulkSize(students);
+		return ResponseEntity.ok().body(studentService.updateAll(students));
+	}
+
+	/**
+	 * {@code DELETE  /students/bulk} : delete a batch of students by id.
+	 *
+	 * @param ids the ids of the students to delete.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the result of each id, or with status {@code 400 (Bad Request)} if
+	 *         the batch is too large.
+	 */
+	@DeleteMapping("/students/bulk")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<List<BulkItemResult>> deleteStudents(@RequestBody List<Long> ids) {
+		log.debug("REST request to delete {} Students", ids.size());
+		checkBulkSize(ids);
+		return ResponseEntity.ok().body(studentService.deleteAll(ids));
+	}
+
+	private void checkBulkSize(List<?> items) {
+		if (items.size() > Constants.BULK_MAX_SIZE) {
+			throw new BadRequestAlertException("A bulk request cannot have more than " + Constants.BULK_MAX_SIZE + " items");
 		}
 	}
 }
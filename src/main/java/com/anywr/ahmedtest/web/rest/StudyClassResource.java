@@ -1,10 +1,16 @@
 package com.anywr.ahmedtest.web.rest;
 
 import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.management.CountMode;
+import com.anywr.ahmedtest.management.ETagUtil;
+import com.anywr.ahmedtest.management.KeysetCursor;
 import com.anywr.ahmedtest.management.PaginationUtil;
-import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.management.SqlBudget;
+import com.anywr.ahmedtest.service.ChangeTokenService;
 import com.anywr.ahmedtest.service.StudyClassService;
+import com.anywr.ahmedtest.service.dto.StudyClassDTO;
 import com.anywr.ahmedtest.web.rest.errors.BadRequestAlertException;
+import com.anywr.ahmedtest.web.rest.errors.PreconditionFailedException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -13,11 +19,13 @@ import java.util.Optional;
 import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -31,11 +39,11 @@ public class StudyClassResource {
 
 	private final StudyClassService studyClassService;
 
-	private final StudyClassRepository studyClassRepository;
+	private final ChangeTokenService changeTokenService;
 
-	public StudyClassResource(StudyClassService studyClassService, StudyClassRepository studyClassRepository) {
+	public StudyClassResource(StudyClassService studyClassService, ChangeTokenService changeTokenService) {
 		this.studyClassService = studyClassService;
-		this.studyClassRepository = studyClassRepository;
+		this.changeTokenService = changeTokenService;
 	}
 
 	/**
@@ -63,16 +71,20 @@ public class StudyClassResource {
 	 *
 	 * @param id            the id of the studyClassDTO to save.
 	 * @param studyClassDTO the studyClassDTO to update.
+	 * @param ifMatch       the {@code If-Match} header, the entity tag of the
+	 *                      version the client updates.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
 	 *         the updated studyClassDTO, or with status {@code 400 (Bad Request)}
-	 *         if the studyClassDTO is not valid, or with status
-	 *         {@code 500 (Internal Server Error)} if the studyClassDTO couldn't be
-	 *         updated.
+	 *         if the studyClassDTO is not valid or is not found.
+	 * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if the
+	 *                                     entity has another version than
+	 *                                     {@code If-Match}.
 	 * @throws URISyntaxException if the Location URI syntax is incorrect.
 	 */
 	@PutMapping("/study-classes/{id}")
-	public ResponseEntity<StudyClass> updateStudyClass(@PathVariable(value = "id", required = false) final Long id,
-			@Valid @RequestBody StudyClass studyClassDTO) throws URISyntaxException {
+	public ResponseEntity<StudyClassDTO> updateStudyClass(@PathVariable(value = "id", required = false) final Long id,
+			@Valid @RequestBody StudyClass studyClassDTO,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
 		log.debug("REST request to update StudyClass : {}, {}", id, studyClassDTO);
 		if (studyClassDTO.getId() == null) {
 			throw new BadRequestAlertException("Invalid id");
@@ -81,28 +93,62 @@ public class StudyClassResource {
 			throw new BadRequestAlertException("Invalid ID");
 		}
 
-		if (!studyClassRepository.existsById(id)) {
-			throw new BadRequestAlertException("Entity not found");
-		}
-
-		StudyClass result = studyClassService.update(studyClassDTO);
-		return ResponseEntity.ok().body(result);
+		Optional<StudyClassDTO> result = studyClassService.update(studyClassDTO, ETagUtil.expectedVersion(ifMatch));
+		return result
+				.map(studyClass -> ResponseEntity.ok().eTag(ETagUtil.strong(studyClass.getVersionTag())).body(studyClass))
+				.orElseThrow(() -> new BadRequestAlertException("Entity not found"));
 	}
 
 	/**
 	 * {@code GET  /study-classes} : get all the studyClasses.
 	 *
 	 * @param pageable the pagination information.
+	 * @param count    {@code none}, {@code exact} (default) or {@code estimate}:
+	 *                 how the {@code X-Total-Count} header is computed.
+	 * @param request  the request, answered with {@code 304 (Not Modified)} when
+	 *                 the list didn\'t change since its {@code If-None-Match} tag.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list
 	 *         of studyClasses in body.
 	 */
 	@GetMapping("/study-classes")
-	public ResponseEntity<List<StudyClass>> getAllStudyClasses(Pageable pageable) {
+	@SqlBudget(statements = 2)
+	public ResponseEntity<List<StudyClassDTO>> getAllStudyClasses(Pageable pageable,
+			@RequestParam(value = "count", required = false) String count, WebRequest request) {
 		log.debug("REST request to get a page of StudyClasses");
-		Page<StudyClass> page = studyClassService.findAll(pageable);
+		String eTag = ETagUtil.strong(changeTokenService.studyClassesToken());
+		if (request.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		Slice<StudyClassDTO> page = studyClassService.findAll(pageable, CountMode.fromParameter(count));
 		HttpHeaders headers = PaginationUtil
 				.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-		return ResponseEntity.ok().headers(headers).body(page.getContent());
+		return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
+	}
+
+	/**
+	 * {@code GET  /study-classes?after=:cursor} : get a keyset page of the
+	 * studyClasses, ordered by name and id. An empty cursor requests the first page.
+	 *
+	 * @param after    the cursor of the {@code next} link of the previous page.
+	 * @param pageable the pagination information, only the page size is used.
+	 * @param request  the request, answered with {@code 304 (Not Modified)} when
+	 *                 the list didn\'t change since its {@code If-None-Match} tag.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list
+	 *         of studyClasses in body.
+	 */
+	@GetMapping(value = "/study-classes", params = "after")
+	@SqlBudget(statements = 1)
+	public ResponseEntity<List<StudyClassDTO>> getStudyClassesAfter(@RequestParam("after") String after,
+			Pageable pageable, WebRequest request) {
+		log.debug("REST request to get a keyset page of StudyClasses after : {}", after);
+		String eTag = ETagUtil.strong(changeTokenService.studyClassesToken());
+		if (request.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		Slice<StudyClassDTO> slice = studyClassService.findAllAfter(KeysetCursor.decode(after), pageable.getPageSize());
+		HttpHeaders headers = PaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(),
+				slice, studyClass -> KeysetCursor.of(studyClass.getName(), studyClass.getId()));
+		return ResponseEntity.ok().headers(headers).eTag(eTag).body(slice.getContent());
 	}
 
 	/**
@@ -113,10 +159,12 @@ public class StudyClassResource {
 	 *         the studyClassDTO, or with status {@code 404 (Not Found)}.
 	 */
 	@GetMapping("/study-classes/{id}")
-	public ResponseEntity<StudyClass> getStudyClass(@PathVariable Long id) {
+	@SqlBudget(statements = 1)
+	public ResponseEntity<StudyClassDTO> getStudyClass(@PathVariable Long id) {
 		log.debug("REST request to get StudyClass : {}", id);
-		Optional<StudyClass> studyClassDTO = studyClassService.findOne(id);
-		return studyClassDTO.map(studyClass -> ResponseEntity.ok().body(studyClass))
+		Optional<StudyClassDTO> studyClassDTO = studyClassService.findOne(id);
+		return studyClassDTO
+				.map(studyClass -> ResponseEntity.ok().eTag(ETagUtil.strong(studyClass.getVersionTag())).body(studyClass))
 				.orElseThrow(() -> new BadRequestAlertException("study class not found"));
 	}
 
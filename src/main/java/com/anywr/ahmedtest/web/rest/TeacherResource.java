@@ -1,12 +1,18 @@
 package com.anywr.ahmedtest.web.rest;
 
-import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.config.Constants;
 import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.management.CountMode;
+import com.anywr.ahmedtest.management.ETagUtil;
+import com.anywr.ahmedtest.management.KeysetCursor;
 import com.anywr.ahmedtest.management.PaginationUtil;
-import com.anywr.ahmedtest.repository.TeacherRepository;
-import com.anywr.ahmedtest.service.StudyClassService;
+import com.anywr.ahmedtest.management.SqlBudget;
+import com.anywr.ahmedtest.service.ChangeTokenService;
 import com.anywr.ahmedtest.service.TeacherService;
+import com.anywr.ahmedtest.service.dto.BulkItemResult;
+import com.anywr.ahmedtest.service.dto.TeacherDTO;
 import com.anywr.ahmedtest.web.rest.errors.BadRequestAlertException;
+import com.anywr.ahmedtest.web.rest.errors.PreconditionFailedException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
@@ -16,11 +22,13 @@ import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -34,14 +42,11 @@ public class TeacherResource {
 
 	private final TeacherService teacherService;
 
-	private final TeacherRepository teacherRepository;
-	
-	private final StudyClassService studyClassService;
+	private final ChangeTokenService changeTokenService;
 
-	public TeacherResource(TeacherService teacherService, TeacherRepository teacherRepository, StudyClassService studyClassService) {
+	public TeacherResource(TeacherService teacherService, ChangeTokenService changeTokenService) {
 		this.teacherService = teacherService;
-		this.teacherRepository = teacherRepository;
-		this.studyClassService = studyClassService;
+		this.changeTokenService = changeTokenService;
 	}
 
 	/**
@@ -50,7 +55,8 @@ public class TeacherResource {
 	 * @param teacherDTO the teacherDTO to create.
 	 * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with
 	 *         body the new teacherDTO, or with status {@code 400 (Bad Request)} if
-	 *         the teacher has already an ID.
+	 *         the teacher has already an ID, or if its study class doesn't exist
+	 *         or has already a teacher.
 	 * @throws URISyntaxException if the Location URI syntax is incorrect.
 	 */
 	@PostMapping("/teachers")
@@ -60,28 +66,47 @@ public class TeacherResource {
 		if (teacherDTO.getId() != null) {
 			throw new BadRequestAlertException("A new teacher cannot already have an ID");
 		}
-		
-		this.checkStudyClassExistance(teacherDTO);
-		
+
 		Teacher result = teacherService.save(teacherDTO);
 		return ResponseEntity.created(new URI("/api/teachers/" + result.getId())).body(result);
 	}
 
+	/**
+	 * {@code POST  /teachers/bulk} : Create a batch of teachers in one transaction.
+	 *
+	 * @param teachers the teachers to create.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the result of each teacher, or with status {@code 400 (Bad Request)} if
+	 *         the batch is too large.
+	 */
+	@PostMapping("/teachers/bulk")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<List<BulkItemResult>> createTeachers(@RequestBody List<Teacher> teachers) {
+		log.debug("REST request to save {} Teachers", teachers.size());
+		checkBulkSize(teachers);
+		return ResponseEntity.ok().body(teacherService.saveAll(teachers));
+	}
+
 	/**
 	 * {@code PUT  /teachers/:id} : Updates an existing teacher.
 	 *
 	 * @param id         the id of the teacherDTO to save.
 	 * @param teacherDTO the teacherDTO to update.
+	 * @param ifMatch    the {@code If-Match} header, the entity tag of the version
+	 *                   the client updates.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
 	 *         the updated teacherDTO, or with status {@code 400 (Bad Request)} if
-	 *         the teacherDTO is not valid, or with status
-	 *         {@code 500 (Internal Server Error)} if the teacherDTO couldn't be
-	 *         updated.
+	 *         the teacherDTO is not valid, is not found, or if its study class
+	 *         doesn't exist or has already a teacher.
+	 * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if the
+	 *                                     entity has another version than
+	 *                                     {@code If-Match}.
 	 * @throws URISyntaxException if the Location URI syntax is incorrect.
 	 */
 	@PutMapping("/teachers/{id}")
-	public ResponseEntity<Teacher> updateTeacher(@PathVariable(value = "id", required = false) final Long id,
-			@Valid @RequestBody Teacher teacherDTO) throws URISyntaxException {
+	public ResponseEntity<TeacherDTO> updateTeacher(@PathVariable(value = "id", required = false) final Long id,
+			@Valid @RequestBody Teacher teacherDTO,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
 		log.debug("REST request to update Teacher : {}, {}", id, teacherDTO);
 		if (teacherDTO.getId() == null) {
 			throw new BadRequestAlertException("Invalid id");
@@ -90,14 +115,10 @@ public class TeacherResource {
 			throw new BadRequestAlertException("Invalid ID");
 		}
 
-		if (!teacherRepository.existsById(id)) {
-			throw new BadRequestAlertException("Entity not found");
-		}
-		
-		this.checkStudyClassExistance(teacherDTO);
-
-		Teacher result = teacherService.update(teacherDTO);
-		return ResponseEntity.ok().body(result);
+		Optional<TeacherDTO> result = teacherService.update(teacherDTO, ETagUtil.expectedVersion(ifMatch));
+		return result
+				.map(teacher -> ResponseEntity.ok().eTag(ETagUtil.strong(teacher.getVersionTag())).body(teacher))
+				.orElseThrow(() -> new BadRequestAlertException("Entity not found"));
 	}
 
 	/**
@@ -106,17 +127,23 @@ public class TeacherResource {
 	 *
 	 * @param id         the id of the teacherDTO to save.
 	 * @param teacherDTO the teacherDTO to update.
+	 * @param ifMatch    the {@code If-Match} header, the entity tag of the version
+	 *                   the client updates.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
 	 *         the updated teacherDTO, or with status {@code 400 (Bad Request)} if
 	 *         the teacherDTO is not valid, or with status {@code 404 (Not Found)}
 	 *         if the teacherDTO is not found, or with status
 	 *         {@code 500 (Internal Server Error)} if the teacherDTO couldn't be
 	 *         updated.
+	 * @throws PreconditionFailedException {@code 412 (Precondition Failed)} if the
+	 *                                     entity has another version than
+	 *                                     {@code If-Match}.
 	 * @throws URISyntaxException if the Location URI syntax is incorrect.
 	 */
 	@PatchMapping(value = "/teachers/{id}", consumes = { "application/json", "application/merge-patch+json" })
-	public ResponseEntity<Teacher> partialUpdateTeacher(@PathVariable(value = "id", required = false) final Long id,
-			@NotNull @RequestBody Teacher teacherDTO) throws URISyntaxException {
+	public ResponseEntity<TeacherDTO> partialUpdateTeacher(@PathVariable(value = "id", required = false) final Long id,
+			@NotNull @RequestBody Teacher teacherDTO,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) throws URISyntaxException {
 		log.debug("REST request to partial update Teacher partially : {}, {}", id, teacherDTO);
 		if (teacherDTO.getId() == null) {
 			throw new BadRequestAlertException("Invalid id");
@@ -125,30 +152,63 @@ public class TeacherResource {
 			throw new BadRequestAlertException("Invalid ID");
 		}
 
-		if (!teacherRepository.existsById(id)) {
-			throw new BadRequestAlertException("Entity not found");
-		}
-
-		Optional<Teacher> result = teacherService.partialUpdate(teacherDTO);
+		Optional<TeacherDTO> result = teacherService.partialUpdate(teacherDTO, ETagUtil.expectedVersion(ifMatch));
 
-		return result.map(teacher -> ResponseEntity.ok().body(teacher))
-				.orElseThrow(() -> new BadRequestAlertException("teacher not found"));
+		return result
+				.map(teacher -> ResponseEntity.ok().eTag(ETagUtil.strong(teacher.getVersionTag())).body(teacher))
+				.orElseThrow(() -> new BadRequestAlertException("Entity not found"));
 	}
 
 	/**
 	 * {@code GET  /teachers} : get all the teachers.
 	 *
 	 * @param pageable the pagination information.
+	 * @param count    {@code none}, {@code exact} (default) or {@code estimate}:
+	 *                 how the {@code X-Total-Count} header is computed.
+	 * @param request  the request, answered with {@code 304 (Not Modified)} when
+	 *                 the list didn\'t change since its {@code If-None-Match} tag.
 	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list
 	 *         of teachers in body.
 	 */
 	@GetMapping("/teachers")
-	public ResponseEntity<List<Teacher>> getAllTeachers(Pageable pageable) {
+	@SqlBudget(statements = 2)
+	public ResponseEntity<List<TeacherDTO>> getAllTeachers(Pageable pageable,
+			@RequestParam(value = "count", required = false) String count, WebRequest request) {
 		log.debug("REST request to get a page of Teachers");
-		Page<Teacher> page = teacherService.findAll(pageable);
+		String eTag = ETagUtil.strong(changeTokenService.teachersToken());
+		if (request.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		Slice<TeacherDTO> page = teacherService.findAll(pageable, CountMode.fromParameter(count));
 		HttpHeaders headers = PaginationUtil
 				.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
-		return ResponseEntity.ok().headers(headers).body(page.getContent());
+		return ResponseEntity.ok().headers(headers).eTag(eTag).body(page.getContent());
+	}
+
+	/**
+	 * {@code GET  /teachers?after=:cursor} : get a keyset page of the teachers,
+	 * ordered by last name and id. An empty cursor requests the first page.
+	 *
+	 * @param after    the cursor of the {@code next} link of the previous page.
+	 * @param pageable the pagination information, only the page size is used.
+	 * @param request  the request, answered with {@code 304 (Not Modified)} when
+	 *                 the list didn\'t change since its {@code If-None-Match} tag.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list
+	 *         of teachers in body.
+	 */
+	@GetMapping(value = "/teachers", params = "after")
+	@SqlBudget(statements = 1)
+	public ResponseEntity<List<TeacherDTO>> getTeachersAfter(@RequestParam("after") String after, Pageable pageable,
+			WebRequest request) {
+		log.debug("REST request to get a keyset page of Teachers after : {}", after);
+		String eTag = ETagUtil.strong(changeTokenService.teachersToken());
+		if (request.checkNotModified(eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+		}
+		Slice<TeacherDTO> slice = teacherService.findAllAfter(KeysetCursor.decode(after), pageable.getPageSize());
+		HttpHeaders headers = PaginationUtil.generateKeysetHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(),
+				slice, teacher -> KeysetCursor.of(teacher.getLastName(), teacher.getId()));
+		return ResponseEntity.ok().headers(headers).eTag(eTag).body(slice.getContent());
 	}
 
 	/**
@@ -159,10 +219,12 @@ public class TeacherResource {
 	 *         the teacherDTO, or with status {@code 404 (Not Found)}.
 	 */
 	@GetMapping("/teachers/{id}")
-	public ResponseEntity<Teacher> getTeacher(@PathVariable Long id) {
+	@SqlBudget(statements = 1)
+	public ResponseEntity<TeacherDTO> getTeacher(@PathVariable Long id) {
 		log.debug("REST request to get Teacher : {}", id);
-		Optional<Teacher> teacherDTO = teacherService.findOne(id);
-		return teacherDTO.map(teacher -> ResponseEntity.ok().body(teacher))
+		Optional<TeacherDTO> teacherDTO = teacherService.findOne(id);
+		return teacherDTO
+				.map(teacher -> ResponseEntity.ok().eTag(ETagUtil.strong(teacher.getVersionTag())).body(teacher))
 				.orElseThrow(() -> new BadRequestAlertException("teacher not found"));
 	}
 
@@ -178,17 +240,43 @@ public class TeacherResource {
 		teacherService.delete(id);
 		return ResponseEntity.noContent().build();
 	}
-	
-    private void checkStudyClassExistance(Teacher teacher) {
-        Optional<StudyClass> studyClass = this.studyClassService.findOne(teacher.getStudyClass().getId());
-        if (studyClass.isEmpty()) {
-        	throw new BadRequestAlertException("Study Class doesn't exist");
-        }
-        // check if study class belong to another teacher
-        Optional<Teacher> oldTeacher = this.teacherService.findOneByStudyClassId(teacher.getStudyClass().getId());
-        
-        if (oldTeacher.isPresent()) {
-        	throw new BadRequestAlertException("Study Class has already a teacher");
-        }
-    }
+
+	/**
+	 * {@code PUT  /teachers/bulk} : Update a batch of teachers in one transaction,
+	 * whatever their version.
+	 *
+	 * @param teachers the teachers to update.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the result of each teacher, or with status {@code 400 (Bad Request)} if
+	 *         the batch is too large.
+	 */
+	@PutMapping("/teachers/bulk")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<List<BulkItemResult>> updateTeachers(@RequestBody List<Teacher> teachers) {
+		log.debug("REST request to update {} Teachers", teachers.size());
+		checkBulkSize(teachers);
+		return ResponseEntity.ok().body(teacherService.updateAll(teachers));
+	}
+
+	/**
+	 * {@code DELETE  /teachers/bulk} : delete a batch of teachers by id.
+	 *
+	 * @param ids the ids of the teachers to delete.
+	 * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
+	 *         the result of each id, or with status {@code 400 (Bad Request)} if
+	 *         the batch is too large.
+	 */
+	@DeleteMapping("/teachers/bulk")
+	@SqlBudget(statements = SqlBudget.UNLIMITED)
+	public ResponseEntity<List<BulkItemResult>> deleteTeachers(@RequestBody List<Long> ids) {
+		log.debug("REST request to delete {} Teachers", ids.size());
+		checkBulkSize(ids);
+		return ResponseEntity.ok().body(teacherService.deleteAll(ids));
+	}
+
+	private void checkBulkSize(List<?> items) {
+		if (items.size() > Constants.BULK_MAX_SIZE) {
+			throw new BadRequestAlertException("A bulk request cannot have more than " + Constants.BULK_MAX_SIZE + " items");
+		}
+	}
 }
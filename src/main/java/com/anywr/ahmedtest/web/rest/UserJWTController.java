@@ -1,17 +1,27 @@
 package com.anywr.ahmedtest.web.rest;
 
+import com.anywr.ahmedtest.repository.RefreshTokenRepository.RefreshTokenOwner;
 import com.anywr.ahmedtest.security.jwt.JWTFilter;
 import com.anywr.ahmedtest.security.jwt.TokenProvider;
+import com.anywr.ahmedtest.service.RefreshTokenService;
 import com.anywr.ahmedtest.web.rest.vm.LoginVM;
+import com.anywr.ahmedtest.web.rest.vm.RefreshTokenVM;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -25,9 +35,20 @@ public class UserJWTController {
 
     private final AuthenticationManagerBuilder authenticationManagerBuilder;
 
-    public UserJWTController(TokenProvider tokenProvider, AuthenticationManagerBuilder authenticationManagerBuilder) {
+    private final RefreshTokenService refreshTokenService;
+
+    private final UserDetailsService userDetailsService;
+
+    public UserJWTController(
+        TokenProvider tokenProvider,
+        AuthenticationManagerBuilder authenticationManagerBuilder,
+        RefreshTokenService refreshTokenService,
+        UserDetailsService userDetailsService
+    ) {
         this.tokenProvider = tokenProvider;
         this.authenticationManagerBuilder = authenticationManagerBuilder;
+        this.refreshTokenService = refreshTokenService;
+        this.userDetailsService = userDetailsService;
     }
 
     @PostMapping("/authenticate")
@@ -38,10 +59,59 @@ public class UserJWTController {
         );
         Authentication authentication = authenticationManagerBuilder.getObject().authenticate(authenticationToken);	
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.createToken(authentication, loginVM.isRememberMe());
+        String jwt = tokenProvider.createToken(authentication);
+        String refreshToken = refreshTokenService.create(authentication.getName(), loginVM.isRememberMe());
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * {@code POST  /refresh} : exchange a refresh token for a new access token and a new refresh token. The refresh
+     * token can't be used again, and the new one expires at the same time.
+     *
+     * @param refreshTokenVM the refresh token.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the tokens in body, or with status
+     *         {@code 401 (Unauthorized)} if the refresh token is unknown, expired or was already used.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JWTToken> refresh(@Valid @RequestBody RefreshTokenVM refreshTokenVM) {
+        RefreshTokenOwner owner = refreshTokenService
+            .consume(refreshTokenVM.getRefreshToken())
+            .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        UserDetails user = userDetailsService.loadUserByUsername(owner.getLogin());
+        Authentication authentication = new UsernamePasswordAuthenticationToken(user.getUsername(), null, user.getAuthorities());
+        String jwt = tokenProvider.createToken(authentication);
+        String refreshToken = refreshTokenService.create(owner.getLogin(), owner.getExpiresAt());
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
-        return new ResponseEntity<>(new JWTToken(jwt), httpHeaders, HttpStatus.OK);
+        return new ResponseEntity<>(new JWTToken(jwt, refreshToken), httpHeaders, HttpStatus.OK);
+    }
+
+    /**
+     * {@code POST  /logout} : revoke the access token of the request and delete all the refresh tokens of the user.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication.getCredentials() instanceof String) {
+            tokenProvider.revoke((String) authentication.getCredentials());
+        }
+        refreshTokenService.deleteAll(authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * {@code GET  /jwks} : the public keys verifying the tokens, as a JWK set. The set is empty when tokens are
+     * signed with an HMAC secret.
+     *
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the JWK set in body.
+     */
+    @GetMapping("/jwks")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> getJwks() {
+        return ResponseEntity.ok().cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES)).body(Map.of("keys", tokenProvider.getJwks()));
     }
 
     /**
@@ -51,8 +121,11 @@ public class UserJWTController {
 
         private String idToken;
 
-        JWTToken(String idToken) {
+        private String refreshToken;
+
+        JWTToken(String idToken, String refreshToken) {
             this.idToken = idToken;
+            this.refreshToken = refreshToken;
         }
 
         @JsonProperty("id_token")
@@ -63,5 +136,10 @@ public class UserJWTController {
         void setIdToken(String idToken) {
             this.idToken = idToken;
         }
+
+        @JsonProperty("refresh_token")
+        String getRefreshToken() {
+            return refreshToken;
+        }
     }
 }
@@ -1,8 +1,12 @@
 package com.anywr.ahmedtest.web.rest.errors;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -14,11 +18,18 @@ import org.springframework.web.context.request.NativeWebRequest;
 import org.zalando.problem.Problem;
 import org.zalando.problem.spring.web.advice.ProblemHandling;
 
-import io.micrometer.common.util.StringUtils;
-import javax.annotation.Nonnull;
-
 @RestControllerAdvice
 public class GlobalExceptionHandler{
+
+    /**
+     * Client messages of the integrity constraints that the database checks on behalf of the REST resources.
+     */
+    private static final Map<String, String> CONSTRAINT_MESSAGES = Map.of(
+        "fk_student_study_class", "Study Class doesn't exist",
+        "fk_teacher_study_class", "Study Class doesn't exist",
+        "ux_teacher_study_class_id", "Study Class has already a teacher",
+        "ux_users_login", "login already exists"
+    );
 	
     @ExceptionHandler(LoginAlreadyUsedException.class)
     public ResponseEntity<String> handleException(LoginAlreadyUsedException ex) {
@@ -30,6 +41,34 @@ public class GlobalExceptionHandler{
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
     
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<String> handleException(ServiceBusyException ex) {
+        return ResponseEntity
+            .status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<String> handleException(PreconditionFailedException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<String> handleException(DataIntegrityViolationException ex) {
+        String message = "Data integrity violation";
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                if (constraintName != null) {
+                    message = CONSTRAINT_MESSAGES.getOrDefault(constraintName.toLowerCase(), message);
+                }
+                break;
+            }
+        }
+        return ResponseEntity.badRequest().body(message);
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ValidationResponse> handleValidationException(MethodArgumentNotValidException ex) {
         List<FieldError> fieldErrors = ex.getBindingResult().getFieldErrors();
@@ -0,0 +1,15 @@
+package com.anywr.ahmedtest.web.rest.errors;
+
+/**
+ * Thrown when the {@code If-Match} header of a request doesn't match the current version of the entity, answered
+ * with {@code 412 (Precondition Failed)}.
+ */
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class PreconditionFailedException extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,21 @@
+package com.anywr.ahmedtest.web.rest.errors;
+
+/**
+ * Thrown when a bounded resource is saturated, answered with {@code 503 (Service Unavailable)} and a {@code Retry-After} header.
+ */
+@SuppressWarnings("java:S110") // Inheritance tree of classes should not be too deep
+public class ServiceBusyException extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,37 @@
+-- Schema as previously generated by hibernate ddl-auto=update.
+-- Databases created before migrations were introduced are baselined at this version.
+
+CREATE SEQUENCE sequence_generator START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id            BIGINT      NOT NULL,
+    login         VARCHAR(50) NOT NULL,
+    password_hash VARCHAR(60) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT ux_users_login UNIQUE (login)
+);
+
+CREATE TABLE study_class (
+    id   BIGINT       NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_study_class PRIMARY KEY (id)
+);
+
+CREATE TABLE teacher (
+    id             BIGINT       NOT NULL,
+    first_name     VARCHAR(255) NOT NULL,
+    last_name      VARCHAR(255) NOT NULL,
+    study_class_id BIGINT       NOT NULL,
+    CONSTRAINT pk_teacher PRIMARY KEY (id),
+    CONSTRAINT ux_teacher_study_class_id UNIQUE (study_class_id),
+    CONSTRAINT fk_teacher_study_class FOREIGN KEY (study_class_id) REFERENCES study_class (id)
+);
+
+CREATE TABLE student (
+    id             BIGINT       NOT NULL,
+    first_name     VARCHAR(255) NOT NULL,
+    last_name      VARCHAR(255) NOT NULL,
+    study_class_id BIGINT       NOT NULL,
+    CONSTRAINT pk_student PRIMARY KEY (id),
+    CONSTRAINT fk_student_study_class FOREIGN KEY (study_class_id) REFERENCES study_class (id)
+);
@@ -0,0 +1,14 @@
+-- Persisted teacher full name so student filtering by teacher can use an index
+-- instead of evaluating CONCAT(first_name, ' ', last_name) on every row.
+
+ALTER TABLE teacher ADD COLUMN IF NOT EXISTS full_name VARCHAR(511);
+
+UPDATE teacher SET full_name = first_name || ' ' || last_name WHERE full_name IS NULL;
+
+ALTER TABLE teacher ALTER COLUMN full_name SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_teacher_full_name ON teacher (full_name);
+
+CREATE INDEX IF NOT EXISTS idx_student_study_class_id ON student (study_class_id);
+
+CREATE INDEX IF NOT EXISTS idx_study_class_name ON study_class (name);
@@ -0,0 +1,10 @@
+-- Indexes backing keyset pagination over (sort key, id).
+
+CREATE INDEX IF NOT EXISTS idx_student_last_name_id ON student (last_name, id);
+
+CREATE INDEX IF NOT EXISTS idx_teacher_last_name_id ON teacher (last_name, id);
+
+-- Also serves lookups by name, which makes idx_study_class_name redundant.
+CREATE INDEX IF NOT EXISTS idx_study_class_name_id ON study_class (name, id);
+
+DROP INDEX IF EXISTS idx_study_class_name;
@@ -0,0 +1,29 @@
+-- Databases baselined from hibernate ddl-auto carry generated constraint names. Rename the constraints
+-- that GlobalExceptionHandler maps to client errors, so they match the names used by V1.
+
+DO $$
+DECLARE
+    existing_name TEXT;
+BEGIN
+    SELECT con.conname INTO existing_name
+    FROM pg_constraint con
+    WHERE con.conrelid = 'student'::regclass AND con.contype = 'f' AND con.confrelid = 'study_class'::regclass;
+    IF existing_name IS NOT NULL AND existing_name <> 'fk_student_study_class' THEN
+        EXECUTE format('ALTER TABLE student RENAME CONSTRAINT %I TO fk_student_study_class', existing_name);
+    END IF;
+
+    SELECT con.conname INTO existing_name
+    FROM pg_constraint con
+    WHERE con.conrelid = 'teacher'::regclass AND con.contype = 'f' AND con.confrelid = 'study_class'::regclass;
+    IF existing_name IS NOT NULL AND existing_name <> 'fk_teacher_study_class' THEN
+        EXECUTE format('ALTER TABLE teacher RENAME CONSTRAINT %I TO fk_teacher_study_class', existing_name);
+    END IF;
+
+    SELECT con.conname INTO existing_name
+    FROM pg_constraint con
+    JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attname = 'study_class_id'
+    WHERE con.conrelid = 'teacher'::regclass AND con.contype = 'u' AND con.conkey = ARRAY[att.attnum];
+    IF existing_name IS NOT NULL AND existing_name <> 'ux_teacher_study_class_id' THEN
+        EXECUTE format('ALTER TABLE teacher RENAME CONSTRAINT %I TO ux_teacher_study_class_id', existing_name);
+    END IF;
+END $$;
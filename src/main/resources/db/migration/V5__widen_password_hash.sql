@@ -0,0 +1,4 @@
+-- Password hashes are stored with their encoder id prefix, e.g. {bcrypt}$2a$12$...
+-- Unprefixed hashes are still read as bcrypt and rewritten on the next successful login.
+
+ALTER TABLE users ALTER COLUMN password_hash TYPE VARCHAR(100);
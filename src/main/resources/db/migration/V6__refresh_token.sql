@@ -0,0 +1,13 @@
+-- Refresh tokens are single use and only stored as the hex SHA-256 digest of the token.
+
+CREATE TABLE refresh_token (
+    id         BIGINT      NOT NULL,
+    token_hash VARCHAR(64) NOT NULL,
+    user_id    BIGINT      NOT NULL,
+    expires_at TIMESTAMP   NOT NULL,
+    CONSTRAINT pk_refresh_token PRIMARY KEY (id),
+    CONSTRAINT ux_refresh_token_token_hash UNIQUE (token_hash),
+    CONSTRAINT fk_refresh_token_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_refresh_token_user_id ON refresh_token (user_id);
@@ -0,0 +1,19 @@
+-- Authorities of the users, embedded in the auth claim of their access tokens.
+
+CREATE TABLE authority (
+    name VARCHAR(50) NOT NULL,
+    CONSTRAINT pk_authority PRIMARY KEY (name)
+);
+
+CREATE TABLE user_authority (
+    user_id        BIGINT      NOT NULL,
+    authority_name VARCHAR(50) NOT NULL,
+    CONSTRAINT pk_user_authority PRIMARY KEY (user_id, authority_name),
+    CONSTRAINT fk_user_authority_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_user_authority_authority FOREIGN KEY (authority_name) REFERENCES authority (name)
+);
+
+INSERT INTO authority (name) VALUES ('ROLE_ADMIN'), ('ROLE_USER');
+
+-- existing users keep their access to the API
+INSERT INTO user_authority (user_id, authority_name) SELECT id, 'ROLE_USER' FROM users;
@@ -0,0 +1,7 @@
+-- Optimistic locking versions, also used to build the ETags of the REST resources.
+
+ALTER TABLE study_class ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE teacher ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE student ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,22 @@
+-- From this version the schema is only changed by migrations, hibernate validates it on startup (ddl-auto=validate)
+-- and no longer adds what the entities declare. Align the databases baselined from hibernate ddl-auto with V1.
+
+-- Each nextval reserves the 50 ids of the entities' allocationSize, a smaller increment would hand out ids twice.
+ALTER SEQUENCE sequence_generator INCREMENT BY 50;
+
+-- The login unique constraint is mapped to a client error by GlobalExceptionHandler, and its index serves the
+-- lookups by login.
+DO $$
+DECLARE
+    existing_name TEXT;
+BEGIN
+    SELECT con.conname INTO existing_name
+    FROM pg_constraint con
+    JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attname = 'login'
+    WHERE con.conrelid = 'users'::regclass AND con.contype = 'u' AND con.conkey = ARRAY[att.attnum];
+    IF existing_name IS NULL THEN
+        ALTER TABLE users ADD CONSTRAINT ux_users_login UNIQUE (login);
+    ELSIF existing_name <> 'ux_users_login' THEN
+        EXECUTE format('ALTER TABLE users RENAME CONSTRAINT %I TO ux_users_login', existing_name);
+    END IF;
+END $$;
@@ -0,0 +1,87 @@
+package com.anywr.ahmedtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+/**
+ * Compares the startup of the application when Hibernate updates the schema ({@code ddl-auto=update}, as before
+ * Flyway owned it) and when it only validates it ({@code ddl-auto=validate}). The times are logged: the time to
+ * create the {@code entityManagerFactory}, which includes the schema update or validation, and
+ * {@code application.ready.time}. A first startup warms the JVM up so that neither mode pays the class loading.
+ */
+class SchemaStartupTimingTests {
+
+	private static final int STARTUP_STEPS_CAPACITY = 4096;
+
+	private final Logger log = LoggerFactory.getLogger(SchemaStartupTimingTests.class);
+
+	@Test
+	void logsStartupTimesOfBothModes() {
+		start("validate");
+		Timing update = start("update");
+		Timing validate = start("validate");
+
+		log.info("ddl-auto=update: entityManagerFactory {} ms, ready after {} ms", update.entityManagerFactoryMillis, update.readyMillis);
+		log.info("ddl-auto=validate: entityManagerFactory {} ms, ready after {} ms", validate.entityManagerFactoryMillis, validate.readyMillis);
+		assertThat(update.entityManagerFactoryMillis).isPositive();
+		assertThat(validate.entityManagerFactoryMillis).isPositive();
+	}
+
+	private static Timing start(String ddlAuto) {
+		BufferingApplicationStartup startup = new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY);
+		try (
+			ConfigurableApplicationContext context = new SpringApplicationBuilder(AhmedtestApplication.class)
+				.applicationStartup(startup)
+				.properties("server.port=0", "spring.jpa.hibernate.ddl-auto=" + ddlAuto)
+				.run()
+		) {
+			long readyMillis = (long) context.getBean(MeterRegistry.class).get("application.ready.time").timeGauge().value(TimeUnit.MILLISECONDS);
+			return new Timing(entityManagerFactoryMillis(startup.getBufferedTimeline()), readyMillis);
+		}
+	}
+
+	private static long entityManagerFactoryMillis(StartupTimeline timeline) {
+		return timeline
+			.getEvents()
+			.stream()
+			.filter(event -> "spring.beans.instantiate".equals(event.getStartupStep().getName()))
+			// a FactoryBean, recorded under its dereferenced name
+			.filter(event -> hasTag(event, "beanName", "&entityManagerFactory"))
+			.map(StartupTimeline.TimelineEvent::getDuration)
+			.findFirst()
+			.orElse(Duration.ZERO)
+			.toMillis();
+	}
+
+	private static boolean hasTag(StartupTimeline.TimelineEvent event, String key, String value) {
+		for (StartupStep.Tag tag : event.getStartupStep().getTags()) {
+			if (key.equals(tag.getKey()) && value.equals(tag.getValue())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static final class Timing {
+
+		private final long entityManagerFactoryMillis;
+
+		private final long readyMillis;
+
+		private Timing(long entityManagerFactoryMillis, long readyMillis) {
+			this.entityManagerFactoryMillis = entityManagerFactoryMillis;
+			this.readyMillis = readyMillis;
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package com.anywr.ahmedtest.config;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks that the connection of a transaction is taken from the replica when it is read-only, from the primary
+ * otherwise, and only at its first statement, and that reads go to the primary while the replica may miss a write.
+ */
+class ReadOnlyRoutingDataSourceTests {
+
+	private DataSource primary;
+
+	private DataSource replica;
+
+	private DataSource dataSource;
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	private ReplicaLag replicaLag;
+
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		primary = pool();
+		replica = pool();
+		replicaLag = new ReplicaLag(2000, nanoTime::get);
+		LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy();
+		lazy.setTargetDataSource(new ReadOnlyRoutingDataSource(primary, replica, replicaLag));
+		lazy.setDefaultAutoCommit(true);
+		lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		lazy.afterPropertiesSet();
+		dataSource = lazy;
+		transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	@Test
+	void readOnlyTransactionUsesReplica() throws SQLException {
+		transactionTemplate.setReadOnly(true);
+
+		transactionTemplate.executeWithoutResult(status -> runStatement());
+
+		verify(replica).getConnection();
+		verify(primary, never()).getConnection();
+	}
+
+	@Test
+	void readWriteTransactionUsesPrimary() throws SQLException {
+		transactionTemplate.executeWithoutResult(status -> runStatement());
+
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	@Test
+	void readOnlyTransactionUsesPrimaryUntilReplicaCaughtUp() throws SQLException {
+		transactionTemplate.setReadOnly(true);
+		replicaLag.writeCommitted();
+
+		nanoTime.addAndGet(1_999_000_000L);
+		transactionTemplate.executeWithoutResult(status -> runStatement());
+		verify(primary).getConnection();
+		verify(replica, never()).getConnection();
+
+		nanoTime.addAndGet(1_000_000L);
+		transactionTemplate.executeWithoutResult(status -> runStatement());
+		verify(replica).getConnection();
+	}
+
+	@Test
+	void transactionWithoutStatementTakesNoConnection() throws SQLException {
+		transactionTemplate.setReadOnly(true);
+
+		transactionTemplate.executeWithoutResult(status -> DataSourceUtils.getConnection(dataSource));
+
+		verify(primary, never()).getConnection();
+		verify(replica, never()).getConnection();
+	}
+
+	private void runStatement() {
+		try {
+			DataSourceUtils.getConnection(dataSource).createStatement().execute("select 1");
+		} catch (SQLException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static DataSource pool() throws SQLException {
+		DataSource pool = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		when(connection.createStatement()).thenReturn(mock(Statement.class));
+		when(connection.getAutoCommit()).thenReturn(true);
+		when(connection.isReadOnly()).thenReturn(false);
+		when(pool.getConnection()).thenReturn(connection);
+		return pool;
+	}
+}
@@ -0,0 +1,58 @@
+package com.anywr.ahmedtest.management;
+
+import org.assertj.core.api.AbstractAssert;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+
+/**
+ * Assertions on the SQL run by a block of code, e.g. a MockMvc request:
+ * {@code assertSql(() -> mockMvc.perform(get("/api/students"))).hasStatementCount(2)}. Failures list the
+ * fingerprints of the executed statements.
+ */
+public final class SqlStatementAssert extends AbstractAssert<SqlStatementAssert, SqlStatementLog> {
+
+	private SqlStatementAssert(SqlStatementLog actual) {
+		super(actual, SqlStatementAssert.class);
+	}
+
+	/**
+	 * Run a block of code, recording the statements it executes on the current thread.
+	 *
+	 * @param code the code.
+	 * @return the assertions on its statements.
+	 */
+	public static SqlStatementAssert assertSql(ThrowingCallable code) {
+		try (SqlStatementLog log = SqlStatementLog.open()) {
+			code.call();
+			return new SqlStatementAssert(log);
+		} catch (Throwable e) {
+			throw new AssertionError("The code under test failed", e);
+		}
+	}
+
+	public SqlStatementAssert hasStatementCount(int expected) {
+		isNotNull();
+		if (actual.getStatements() != expected) {
+			failWithMessage("Expected %d SQL statements but %d were executed:%s", expected, actual.getStatements(),
+					actual.describe());
+		}
+		return this;
+	}
+
+	public SqlStatementAssert hasStatementCountAtMost(int max) {
+		isNotNull();
+		if (actual.getStatements() > max) {
+			failWithMessage("Expected at most %d SQL statements but %d were executed:%s", max, actual.getStatements(),
+					actual.describe());
+		}
+		return this;
+	}
+
+	public SqlStatementAssert hasRowCountAtMost(long max) {
+		isNotNull();
+		if (actual.getRows() > max) {
+			failWithMessage("Expected at most %d rows read but %d were read by:%s", max, actual.getRows(),
+					actual.describe());
+		}
+		return this;
+	}
+}
@@ -0,0 +1,114 @@
+package com.anywr.ahmedtest.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(900);
+
+    private final AtomicLong now = new AtomicLong();
+
+    private AdaptiveConcurrencyLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        limit = new AdaptiveConcurrencyLimit(10, new SimpleMeterRegistry(), now::get);
+        limit.configure(2, 20, 500, 0.5, 1000, 0.5);
+    }
+
+    @Test
+    void growsByOneWhenBusyAndFast() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limit.tryAcquire("client-" + i)).isNull();
+        }
+
+        limit.release("client-0", FAST, false);
+
+        assertThat(limit.getLimit()).isEqualTo(11);
+    }
+
+    @Test
+    void doesNotGrowWhenMostlyIdle() {
+        limit.tryAcquire("client");
+
+        limit.release("client", FAST, false);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void shrinksOncePerIntervalOnSlowResponses() {
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire("client-" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            limit.release("client-" + i, SLOW, false);
+        }
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limit.tryAcquire("client");
+        limit.release("client", SLOW, false);
+
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void shrinksOnServerErrors() {
+        limit.tryAcquire("client");
+
+        limit.release("client", FAST, true);
+
+        assertThat(limit.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    void neverShrinksBelowTheMinimum() {
+        for (int i = 0; i < 10; i++) {
+            now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+            limit.tryAcquire("client");
+            limit.release("client", SLOW, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void unsampledRequestsDoNotAdapt() {
+        limit.tryAcquire("client");
+
+        limit.release("client", -1, true);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsAClientOverItsShare() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(limit.tryAcquire("client")).isNull();
+        }
+
+        assertThat(limit.tryAcquire("client")).isEqualTo(AdaptiveConcurrencyLimit.Rejection.CLIENT);
+        assertThat(limit.tryAcquire("other")).isNull();
+    }
+
+    @Test
+    void rejectsOverTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limit.tryAcquire("client-" + i)).isNull();
+        }
+
+        assertThat(limit.tryAcquire("client-10")).isEqualTo(AdaptiveConcurrencyLimit.Rejection.GLOBAL);
+
+        limit.release("client-0", FAST, false);
+        assertThat(limit.tryAcquire("client-10")).isNull();
+    }
+}
@@ -0,0 +1,112 @@
+package com.anywr.ahmedtest.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ApiLimitFilterTest {
+
+    private static final FilterChain OK = (request, response) -> {};
+
+    private MockEnvironment environment;
+
+    @BeforeEach
+    void setUp() {
+        environment =
+            new MockEnvironment()
+                .withProperty("api.rateLimit.perMinute", "60")
+                .withProperty("api.rateLimit.burst", "100")
+                .withProperty("api.concurrency.initialLimit", "10")
+                .withProperty("api.concurrency.minLimit", "1")
+                .withProperty("api.concurrency.maxLimit", "10")
+                .withProperty("api.concurrency.perClientShare", "1")
+                .withProperty("api.concurrency.unsampledPaths", "/api/students/import");
+    }
+
+    @Test
+    void requestsOverTheRateAreRejected() throws Exception {
+        environment.setProperty("api.rateLimit.burst", "2");
+        ApiLimitFilter filter = filter(new ApiLimits(environment, new SimpleMeterRegistry()));
+
+        assertThat(call(filter, "/api/students", "10.0.0.1", OK).getStatus()).isEqualTo(HttpStatus.OK.value());
+        MockHttpServletResponse second = call(filter, "/api/students", "10.0.0.1", OK);
+        MockHttpServletResponse third = call(filter, "/api/students", "10.0.0.1", OK);
+
+        assertThat(second.getHeader(ApiLimitFilter.RATE_LIMIT_REMAINING_HEADER)).isEqualTo("0");
+        assertThat(third.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(third.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(call(filter, "/api/students", "10.0.0.2", OK).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void requestsOverTheConcurrencyLimitAreRejected() throws Exception {
+        environment.setProperty("api.concurrency.initialLimit", "1");
+        ApiLimitFilter filter = filter(new ApiLimits(environment, new SimpleMeterRegistry()));
+        AtomicReference<MockHttpServletResponse> concurrent = new AtomicReference<>();
+
+        call(filter, "/api/students", "10.0.0.1", (request, response) -> concurrent.set(call(filter, "/api/students", "10.0.0.2", OK)));
+
+        assertThat(concurrent.get().getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(call(filter, "/api/students", "10.0.0.2", OK).getStatus()).isEqualTo(HttpStatus.OK.value());
+    }
+
+    @Test
+    void requestsOverTheClientShareAreRejected() throws Exception {
+        environment.setProperty("api.concurrency.perClientShare", "0.1");
+        ApiLimitFilter filter = filter(new ApiLimits(environment, new SimpleMeterRegistry()));
+        AtomicReference<MockHttpServletResponse> concurrent = new AtomicReference<>();
+
+        call(filter, "/api/students", "10.0.0.1", (request, response) -> concurrent.set(call(filter, "/api/students", "10.0.0.1", OK)));
+
+        assertThat(concurrent.get().getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void slowRequestsShrinkTheLimitUnlessUnsampled() throws Exception {
+        environment.setProperty("api.concurrency.latencyThresholdMillis", "0");
+        ApiLimits apiLimits = new ApiLimits(environment, new SimpleMeterRegistry());
+        ApiLimitFilter filter = filter(apiLimits);
+        FilterChain slow = (request, response) -> sleep();
+
+        call(filter, "/api/students/import", "10.0.0.1", slow);
+        assertThat(apiLimits.getConcurrencyLimit().getLimit()).isEqualTo(10);
+
+        call(filter, "/api/students", "10.0.0.1", slow);
+        assertThat(apiLimits.getConcurrencyLimit().getLimit()).isEqualTo(9);
+    }
+
+    private static ApiLimitFilter filter(ApiLimits apiLimits) {
+        return new ApiLimitFilter(apiLimits, new SecurityMetersService(new SimpleMeterRegistry()));
+    }
+
+    private static MockHttpServletResponse call(ApiLimitFilter filter, String path, String ip, FilterChain chain) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
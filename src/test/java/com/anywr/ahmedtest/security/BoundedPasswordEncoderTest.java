@@ -0,0 +1,181 @@
+package com.anywr.ahmedtest.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.domain.Authority;
+import com.anywr.ahmedtest.repository.AuthorityRepository;
+import com.anywr.ahmedtest.repository.UserRepository;
+import com.anywr.ahmedtest.service.UserService;
+import com.anywr.ahmedtest.web.rest.AccountResource;
+import com.anywr.ahmedtest.web.rest.errors.GlobalExceptionHandler;
+import com.anywr.ahmedtest.web.rest.errors.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+class BoundedPasswordEncoderTest {
+
+    private static final long RETRY_AFTER_SECONDS = 3;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final BlockingEncoder delegate = new BlockingEncoder();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        delegate.release.countDown();
+        callers.shutdownNow();
+        encoder.destroy();
+    }
+
+    @Test
+    void operationIsRejectedWhenTheQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, RETRY_AFTER_SECONDS, registry);
+        List<Future<String>> accepted = new ArrayList<>();
+        accepted.add(callers.submit(() -> encoder.encode("running")));
+        assertThat(delegate.started.await(10, TimeUnit.SECONDS)).isTrue();
+        accepted.add(callers.submit(() -> encoder.encode("queued")));
+        awaitQueueSize(1);
+
+        assertThatThrownBy(() -> encoder.encode("rejected"))
+            .isInstanceOfSatisfying(
+                ServiceBusyException.class,
+                e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(RETRY_AFTER_SECONDS)
+            );
+        assertThat(registry.get(BoundedPasswordEncoder.REJECTED_METER_NAME).counter().count()).isEqualTo(1);
+
+        delegate.release.countDown();
+        assertThat(accepted.get(0).get(10, TimeUnit.SECONDS)).isEqualTo("encoded running");
+        assertThat(accepted.get(1).get(10, TimeUnit.SECONDS)).isEqualTo("encoded queued");
+    }
+
+    @Test
+    void operationIsRejectedWhenEveryThreadIsBusyWithoutAQueue() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, RETRY_AFTER_SECONDS, registry);
+        Future<Boolean> running = callers.submit(() -> encoder.matches("running", "encoded running"));
+        assertThat(delegate.started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> encoder.matches("rejected", "encoded rejected")).isInstanceOf(ServiceBusyException.class);
+
+        delegate.release.countDown();
+        assertThat(running.get(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void fullQueueIsAnsweredWithServiceUnavailable() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, RETRY_AFTER_SECONDS, registry);
+        UserRepository userRepository = mock(UserRepository.class);
+        AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+        when(userRepository.findOneByLogin(any())).thenReturn(Optional.empty());
+        when(authorityRepository.findById(AuthoritiesConstants.USER)).thenReturn(Optional.of(new Authority()));
+        UserService userService = new UserService(userRepository, encoder, mock(UserCache.class), authorityRepository);
+        MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new AccountResource(userService))
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+        callers.submit(() -> encoder.encode("running"));
+        assertThat(delegate.started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        mockMvc
+            .perform(post("/api/register").contentType(MediaType.APPLICATION_JSON).content("{\"login\":\"busy\",\"password\":\"password\"}"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS)));
+    }
+
+    @Test
+    void upgradeEncodingRunsOnTheCallerThread() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 0, RETRY_AFTER_SECONDS, registry);
+        callers.submit(() -> encoder.encode("running"));
+        assertThat(delegate.started.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // answered while the only hashing thread is busy and nothing can be queued
+        assertThat(encoder.upgradeEncoding("encoded password")).isTrue();
+        assertThat(delegate.upgradeEncodingThread.get()).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void hashingRunsOnTheHashingThreads() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, RETRY_AFTER_SECONDS, registry);
+        delegate.release.countDown();
+
+        assertThat(encoder.encode("password")).isEqualTo("encoded password");
+        assertThat(delegate.encodeThread.get().getName()).startsWith("password-hashing-");
+    }
+
+    private void awaitQueueSize(int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (registry.get(BoundedPasswordEncoder.QUEUE_METER_NAME).gauge().value() < size) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Prefixes the passwords, and blocks every encode and matches until released.
+     */
+    private static final class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final AtomicReference<Thread> encodeThread = new AtomicReference<>();
+
+        private final AtomicReference<Thread> upgradeEncodingThread = new AtomicReference<>();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            encodeThread.set(Thread.currentThread());
+            block();
+            return "encoded " + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            block();
+            return encodedPassword.equals("encoded " + rawPassword);
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            upgradeEncodingThread.set(Thread.currentThread());
+            return true;
+        }
+
+        private void block() {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.anywr.ahmedtest.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+class LoginThrottlingFilterTest {
+
+    private static final String BODY = "{\"username\":\"Alice\",\"password\":\"secret\"}";
+
+    private SimpleMeterRegistry registry;
+
+    private LoginThrottlingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        filter =
+            new LoginThrottlingFilter(
+                new TokenBucketTable(5, 5, 1000),
+                new TokenBucketTable(2, 2, 1000),
+                new SecurityMetersService(registry),
+                new ObjectMapper(),
+                Clock.fixed(Instant.ofEpochSecond(1_000_000), ZoneOffset.UTC)
+            );
+    }
+
+    @Test
+    void bodyIsReplayedToTheController() throws Exception {
+        AtomicReference<String> replayed = new AtomicReference<>();
+
+        MockHttpServletResponse response = attempt(BODY, "10.0.0.1", replayed);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(replayed).hasValue(BODY);
+    }
+
+    @Test
+    void bodyIsReplayedToAReader() throws Exception {
+        AtomicReference<String> replayed = new AtomicReference<>();
+
+        filter.doFilter(request(BODY, "10.0.0.1"), new MockHttpServletResponse(), (req, res) -> replayed.set(req.getReader().readLine()));
+
+        assertThat(replayed).hasValue(BODY);
+    }
+
+    @Test
+    void replayedStreamReportsItsEnd() throws Exception {
+        AtomicReference<ServletInputStream> stream = new AtomicReference<>();
+        filter.doFilter(request(BODY, "10.0.0.1"), new MockHttpServletResponse(), (req, res) -> stream.set(req.getInputStream()));
+
+        ServletInputStream inputStream = stream.get();
+        assertThat(inputStream.isFinished()).isFalse();
+        StreamUtils.copyToByteArray(inputStream);
+        assertThat(inputStream.isFinished()).isTrue();
+
+        StringBuilder events = new StringBuilder();
+        inputStream.setReadListener(
+            new ReadListener() {
+                @Override
+                public void onDataAvailable() {
+                    events.append("data ");
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.append("end");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.append("error");
+                }
+            }
+        );
+        assertThat(events).hasToString("end");
+    }
+
+    @Test
+    void loginOverItsLimitIsRejectedWithRetryAfter() throws Exception {
+        attempt(BODY, "10.0.0.1", new AtomicReference<>());
+        attempt(BODY.replace("Alice", "alice"), "10.0.0.2", new AtomicReference<>());
+        AtomicReference<String> replayed = new AtomicReference<>();
+
+        MockHttpServletResponse response = attempt(BODY, "10.0.0.3", replayed);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("30");
+        assertThat(replayed).hasValue(null);
+        assertThat(registry.get("security.authentication.throttled").tag("key", "login").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void ipOverItsLimitIsRejectedBeforeReadingTheBody() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            attempt("{\"username\":\"user" + i + "\"}", "10.0.0.1", new AtomicReference<>());
+        }
+
+        MockHttpServletResponse response = attempt(BODY, "10.0.0.1", new AtomicReference<>());
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("12");
+        assertThat(registry.get("security.authentication.throttled").tag("key", "ip").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void oversizedBodyIsRejected() throws Exception {
+        MockHttpServletResponse response = attempt("{\"username\":\"" + "a".repeat(9000) + "\"}", "10.0.0.1", new AtomicReference<>());
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE.value());
+    }
+
+    private MockHttpServletResponse attempt(String body, String ip, AtomicReference<String> replayed) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(
+            request(body, ip),
+            response,
+            (req, res) -> replayed.set(StreamUtils.copyToString(req.getInputStream(), StandardCharsets.UTF_8))
+        );
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String body, String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/authenticate");
+        request.setServletPath("/api/authenticate");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,46 @@
+package com.anywr.ahmedtest.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTableTest {
+
+    // one bucket per segment, any new key evicts
+    private static final int MAX_KEYS = 64;
+
+    private static final long NOW = 1_000_000;
+
+    private final TokenBucketTable table = new TokenBucketTable(2, 1, MAX_KEYS);
+
+    @Test
+    void emptyBucketIsRejectedUntilRefilled() {
+        assertThat(table.tryAcquire("a", NOW)).isZero();
+        assertThat(table.tryAcquire("a", NOW)).isZero();
+
+        assertThat(table.tryAcquire("a", NOW)).isBetween(59_000L, 60_001L);
+        assertThat(table.tryAcquire("a", NOW + 61_000)).isZero();
+    }
+
+    @Test
+    void newKeysAreLimitedWhenTheTableIsFull() {
+        for (int i = 0; i < 10 * MAX_KEYS; i++) {
+            table.tryAcquire("flood-" + i, NOW);
+        }
+
+        assertThat(table.tryAcquire("new", NOW)).isZero();
+        assertThat(table.tryAcquire("new", NOW)).isZero();
+        assertThat(table.tryAcquire("new", NOW)).isPositive();
+    }
+
+    @Test
+    void recentlyUsedBucketIsKeptOverIdleOnes() {
+        TokenBucketTable large = new TokenBucketTable(1, 1, 64 * 2);
+        large.tryAcquire("victim", NOW);
+        for (int i = 0; i < 10_000; i++) {
+            // the victim keeps being attempted while the table is flooded
+            assertThat(large.tryAcquire("victim", NOW)).isPositive();
+            large.tryAcquire("flood-" + i, NOW);
+        }
+    }
+}
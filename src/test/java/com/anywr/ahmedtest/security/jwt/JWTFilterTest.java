@@ -0,0 +1,86 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class JWTFilterTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TokenRevocationList revocationList = new TokenRevocationList();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void revokedTokenIsRejected(boolean cacheEnabled) throws Exception {
+        TokenProvider tokenProvider = tokenProvider(cacheEnabled);
+        JWTFilter filter = new JWTFilter(tokenProvider);
+        String jwt = tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken("user", null, List.of(new SimpleGrantedAuthority("ROLE_USER")))
+        );
+        // the first request verifies the signature, and puts the claims in the cache when it is enabled
+        assertThat(filter(filter, jwt)).isNotNull();
+        assertThat(filter(filter, jwt).getName()).isEqualTo("user");
+
+        tokenProvider.revoke(jwt);
+
+        assertThat(filter(filter, jwt)).isNull();
+        assertThat(tokenProvider.parseToken(jwt).getFailure()).isEqualTo(TokenValidationResult.Failure.REVOKED);
+        double revoked = registry
+            .get(SecurityMetersService.INVALID_TOKENS_METER_NAME)
+            .tag(SecurityMetersService.INVALID_TOKENS_METER_CAUSE_DIMENSION, "revoked")
+            .counter()
+            .count();
+        assertThat(revoked).isEqualTo(2);
+    }
+
+    @Test
+    void otherTokensOfTheUserAreStillAccepted() throws Exception {
+        TokenProvider tokenProvider = tokenProvider(true);
+        JWTFilter filter = new JWTFilter(tokenProvider);
+        Authentication user = new UsernamePasswordAuthenticationToken("user", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        String revoked = tokenProvider.createToken(user);
+        String other = tokenProvider.createToken(user);
+
+        tokenProvider.revoke(revoked);
+
+        assertThat(filter(filter, revoked)).isNull();
+        assertThat(filter(filter, other)).isNotNull();
+    }
+
+    private Authentication filter(JWTFilter filter, String jwt) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/students");
+        request.addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwt);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    private TokenProvider tokenProvider(boolean cacheEnabled) {
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("jwt.secret", "sdfsadfsdfggh546dffsdgsdfgfdfgsdfgs564ds5g4fd")
+            .withProperty("jwt.tokenValidityTime", "900")
+            .withProperty("jwt.cache.enabled", String.valueOf(cacheEnabled));
+        return new TokenProvider(new SecurityMetersService(registry), revocationList, environment);
+    }
+}
@@ -0,0 +1,88 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Date;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the time taken to sign and verify a token with HS256, the {@code hmac} signing mode, and with ES256, an
+ * EC key pair of the {@code keystore} mode. A timed loop after a warm-up rather than a JMH benchmark, so the times
+ * are indicative only: they are logged, and only the order of magnitude between the algorithms is checked.
+ */
+class JwtSignatureTimingTest {
+
+    private static final int WARMUP = 2_000;
+
+    private static final int ITERATIONS = 5_000;
+
+    private final Logger log = LoggerFactory.getLogger(JwtSignatureTimingTest.class);
+
+    @Test
+    void hs256IsFasterThanEs256() throws Exception {
+        JwtKeys hmac = JwtKeys.hmac(Keys.hmacShaKeyFor("sdfsadfsdfggh546dffsdgsdfgfdfgsdfgs564ds5g4fd".getBytes(StandardCharsets.UTF_8)));
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair ec = generator.generateKeyPair();
+
+        Timing hs256 = time(hmac.getSigningKey(), hmac.getSigningKey(), SignatureAlgorithm.HS256);
+        Timing es256 = time(ec.getPrivate(), ec.getPublic(), SignatureAlgorithm.ES256);
+
+        log.info("HS256: sign {} µs, verify {} µs per token", hs256.signMicros, hs256.verifyMicros);
+        log.info("ES256: sign {} µs, verify {} µs per token", es256.signMicros, es256.verifyMicros);
+        // ES256 is one to two orders of magnitude slower, the margin keeps the check stable on a loaded machine
+        assertThat(es256.verifyMicros).isGreaterThan(hs256.verifyMicros * 2);
+    }
+
+    private Timing time(Key signingKey, Key verificationKey, SignatureAlgorithm algorithm) {
+        Supplier<String> sign = () ->
+            Jwts
+                .builder()
+                .setSubject("admin")
+                .claim("auth", "ROLE_ADMIN,ROLE_USER")
+                .signWith(signingKey, algorithm)
+                .setExpiration(new Date(System.currentTimeMillis() + 900_000))
+                .compact();
+        JwtParser parser = Jwts.parserBuilder().setSigningKey(verificationKey).build();
+        String token = sign.get();
+
+        for (int i = 0; i < WARMUP; i++) {
+            assertThat(parser.parseClaimsJws(sign.get()).getBody().getSubject()).isEqualTo("admin");
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            token = sign.get();
+        }
+        long signNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parser.parseClaimsJws(token);
+        }
+        long verifyNanos = System.nanoTime() - start;
+        return new Timing(signNanos / ITERATIONS / 1000d, verifyNanos / ITERATIONS / 1000d);
+    }
+
+    private static final class Timing {
+
+        private final double signMicros;
+
+        private final double verifyMicros;
+
+        private Timing(double signMicros, double verifyMicros) {
+            this.signMicros = signMicros;
+            this.verifyMicros = verifyMicros;
+        }
+    }
+}
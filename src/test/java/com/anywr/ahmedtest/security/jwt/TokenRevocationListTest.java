@@ -0,0 +1,72 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TokenRevocationListTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final TestClock clock = new TestClock(1_000_000_000);
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        revocationList = new TokenRevocationList(clock);
+    }
+
+    @Test
+    void onlyRevokedIdsAreRevoked() {
+        revocationList.revoke("revoked", clock.millis() + MINUTE);
+
+        assertThat(revocationList.isRevoked("revoked")).isTrue();
+        assertThat(revocationList.isRevoked("other")).isFalse();
+        assertThat(revocationList.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void expiredTokenIsNotKept() {
+        revocationList.revoke("expired", clock.millis());
+
+        assertThat(revocationList.isRevoked("expired")).isFalse();
+        assertThat(revocationList.size()).isZero();
+    }
+
+    @Test
+    void purgeKeepsTheIdsThatAreNotExpired() {
+        // the first revocation purges, the next ones within a minute are only added to the bloom filter
+        revocationList.revoke("short", clock.millis() + MINUTE / 2);
+        String[] kept = new String[1000];
+        for (int i = 0; i < kept.length; i++) {
+            kept[i] = UUID.randomUUID().toString();
+            revocationList.revoke(kept[i], clock.millis() + 10 * MINUTE);
+        }
+        clock.advance(MINUTE);
+
+        revocationList.revoke("last", clock.millis() + MINUTE);
+
+        assertThat(revocationList.size()).isEqualTo(kept.length + 1);
+        assertThat(revocationList.isRevoked("short")).isFalse();
+        assertThat(revocationList.isRevoked("last")).isTrue();
+        for (String jti : kept) {
+            assertThat(revocationList.isRevoked(jti)).as(jti).isTrue();
+        }
+    }
+
+    @Test
+    void idRevokedAfterAPurgeIsRevoked() {
+        revocationList.revoke("first", clock.millis() + 10 * MINUTE);
+        clock.advance(MINUTE);
+        revocationList.revoke("second", clock.millis() + 10 * MINUTE);
+
+        revocationList.revoke("third", clock.millis() + 10 * MINUTE);
+
+        assertThat(revocationList.isRevoked("first")).isTrue();
+        assertThat(revocationList.isRevoked("second")).isTrue();
+        assertThat(revocationList.isRevoked("third")).isTrue();
+    }
+}
@@ -0,0 +1,117 @@
+package com.anywr.ahmedtest.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.management.SecurityMetersService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class VerifiedTokenCacheTest {
+
+    private static final int MAX_SIZE = 100;
+
+    // JWT expirations have a one second precision, the clock moves by whole seconds
+    private final TestClock clock = new TestClock(1_000_000_000);
+
+    private MeterRegistry registry;
+
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new VerifiedTokenCache(MAX_SIZE, new SecurityMetersService(registry), clock);
+    }
+
+    @Test
+    void expiredTokenIsNeverReturned() {
+        cache.put("token", claims("token", clock.millis() + 10_000));
+        assertThat(cache.get("token")).isNotNull();
+
+        clock.advance(10_000);
+
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(count(SecurityMetersService.TOKEN_CACHE_EVICTIONS_METER_NAME, "cause", "expired")).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentLookupsStayBoundedAndNeverReturnExpiredClaims() throws Exception {
+        int threads = 16;
+        int iterations = 20_000;
+        int tokens = 500;
+        AtomicInteger expiredReturned = new AtomicInteger();
+        AtomicInteger wrongClaims = new AtomicInteger();
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(
+                    executor.submit(() -> {
+                        start.await();
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < iterations; i++) {
+                            String token = "token-" + random.nextInt(tokens);
+                            if (random.nextInt(100) == 0) {
+                                clock.advance(1000);
+                            }
+                            long before = clock.millis();
+                            Claims claims = cache.get(token);
+                            lookups.incrementAndGet();
+                            if (claims == null) {
+                                cache.put(token, claims(token, before + 1000L * (1 + random.nextInt(50))));
+                            } else {
+                                if (claims.getExpiration().getTime() <= before) {
+                                    expiredReturned.incrementAndGet();
+                                }
+                                if (!token.equals(claims.getSubject())) {
+                                    wrongClaims.incrementAndGet();
+                                }
+                            }
+                        }
+                        return null;
+                    })
+                );
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(expiredReturned).hasValue(0);
+        assertThat(wrongClaims).hasValue(0);
+        assertThat(cache.size()).isLessThanOrEqualTo(MAX_SIZE);
+        double hits = count(SecurityMetersService.TOKEN_CACHE_METER_NAME, "result", "hit");
+        double misses = count(SecurityMetersService.TOKEN_CACHE_METER_NAME, "result", "miss");
+        assertThat(hits).isPositive();
+        assertThat(hits + misses).isEqualTo(lookups.get());
+        assertThat(count(SecurityMetersService.TOKEN_CACHE_EVICTIONS_METER_NAME, "cause", "size")).isPositive();
+    }
+
+    private double count(String name, String tag, String value) {
+        return registry.get(name).tag(tag, value).counter().count();
+    }
+
+    private static Claims claims(String subject, long expiresAt) {
+        return Jwts.claims().setSubject(subject).setExpiration(new Date(expiresAt));
+    }
+}
@@ -0,0 +1,61 @@
+package com.anywr.ahmedtest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Checks that the cached counts of a table are dropped when the writing transaction commits, not before.
+ */
+class CountEstimateServiceTests {
+
+	private final CountEstimateService countEstimateService = new CountEstimateService(mock(JdbcTemplate.class));
+
+	private final AtomicLong rows = new AtomicLong(10);
+
+	@BeforeEach
+	void setUp() {
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void countsAreDroppedAfterCommit() {
+		assertThat(estimate()).isEqualTo(10);
+
+		countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+		rows.set(11);
+		// a count computed before the commit doesn't see the write, and must not outlive it
+		assertThat(estimate()).isEqualTo(10);
+
+		TransactionSynchronizationUtils.triggerAfterCommit();
+		assertThat(estimate()).isEqualTo(11);
+	}
+
+	@Test
+	void countsAreKeptAfterRollback() {
+		assertThat(estimate()).isEqualTo(10);
+
+		countEstimateService.invalidate(CountEstimateService.STUDENT_TABLE);
+		rows.set(11);
+		TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		assertThat(estimate()).isEqualTo(10);
+	}
+
+	private long estimate() {
+		return countEstimateService.estimate(CountEstimateService.STUDENT_TABLE, "teacher=1", rows::get);
+	}
+}
@@ -0,0 +1,117 @@
+package com.anywr.ahmedtest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.management.CountMode;
+import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import com.anywr.ahmedtest.service.dto.StudentDTO;
+import com.anywr.ahmedtest.service.dto.StudyClassDTO;
+import com.anywr.ahmedtest.service.dto.TeacherDTO;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks that list reads issue a fixed number of SQL statements, whatever the page size.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class ListQueryCountTests {
+
+	private static final int CLASS_COUNT = 6;
+
+	private static final int STUDENTS_PER_CLASS = 4;
+
+	@Autowired
+	private StudentService studentService;
+
+	@Autowired
+	private TeacherService teacherService;
+
+	@Autowired
+	private StudyClassService studyClassService;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < CLASS_COUNT; i++) {
+			StudyClass studyClass = studyClassRepository.save(new StudyClass().name("class-" + i));
+			teacherRepository.save(new Teacher().firstName("teacher").lastName("n" + i).studyClass(studyClass).refreshFullName());
+			for (int j = 0; j < STUDENTS_PER_CLASS; j++) {
+				studentRepository.save(new Student().firstName("student").lastName("n" + i + "-" + j).studyClass(studyClass));
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 10, 20 })
+	void studentPageRunsSelectAndCount(int size) {
+		Slice<StudentDTO> page = studentService.findAll(PageRequest.of(0, size), null, null, CountMode.EXACT);
+
+		assertThat(page.getNumberOfElements()).isEqualTo(size);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+	}
+
+	// smaller than the class, a first page that isn't full is counted without a query
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 3 })
+	void filteredStudentPageRunsFilterSelectAndCount(int size) {
+		Slice<StudentDTO> page = studentService.findAll(PageRequest.of(0, size), null, "teacher n1", CountMode.EXACT);
+
+		assertThat(page.getNumberOfElements()).isEqualTo(size);
+		assertThat(page.getContent()).allSatisfy(student -> assertThat(student.getStudyClass().getName()).isEqualTo("class-1"));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 6 })
+	void teacherSliceRunsSingleSelect(int size) {
+		Slice<TeacherDTO> page = teacherService.findAll(PageRequest.of(0, size), CountMode.NONE);
+
+		assertThat(page.getNumberOfElements()).isEqualTo(size);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 2, 4, 6 })
+	void studyClassSliceRunsSingleSelect(int size) {
+		Slice<StudyClassDTO> page = studyClassService.findAll(PageRequest.of(0, size), CountMode.NONE);
+
+		assertThat(page.getNumberOfElements()).isEqualTo(size);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
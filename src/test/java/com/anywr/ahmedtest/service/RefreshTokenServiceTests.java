@@ -0,0 +1,120 @@
+package com.anywr.ahmedtest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.domain.User;
+import com.anywr.ahmedtest.repository.RefreshTokenRepository.RefreshTokenOwner;
+import com.anywr.ahmedtest.repository.UserRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Checks that a refresh token can be used once, even by concurrent requests, and that the token replacing it keeps
+ * its expiration. Not transactional: each use commits, as it does for a request.
+ */
+@SpringBootTest
+class RefreshTokenServiceTests {
+
+	private static final String LOGIN = "refresh-token-test";
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@BeforeEach
+	void setUp() {
+		User user = new User();
+		user.setLogin(LOGIN);
+		// never checked, only shaped like a bcrypt hash
+		user.setPassword("$2a$10$" + "x".repeat(53));
+		userRepository.save(user);
+	}
+
+	@AfterEach
+	void tearDown() {
+		refreshTokenService.deleteAll(LOGIN);
+		userRepository.findOneByLogin(LOGIN).ifPresent(userRepository::delete);
+	}
+
+	@Test
+	void tokenCanBeUsedOnce() {
+		String token = refreshTokenService.create(LOGIN, false);
+
+		Optional<RefreshTokenOwner> owner = refreshTokenService.consume(token);
+
+		assertThat(owner).isPresent();
+		assertThat(owner.get().getLogin()).isEqualTo(LOGIN);
+		assertThat(refreshTokenService.consume(token)).isEmpty();
+	}
+
+	@Test
+	void concurrentUsesOfATokenOnlyLetOneThrough() throws Exception {
+		int threads = 8;
+		String token = refreshTokenService.create(LOGIN, false);
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Optional<RefreshTokenOwner>>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return refreshTokenService.consume(token);
+				}));
+			}
+			start.countDown();
+			int used = 0;
+			for (Future<Optional<RefreshTokenOwner>> future : futures) {
+				if (future.get(30, TimeUnit.SECONDS).isPresent()) {
+					used++;
+				}
+			}
+
+			assertThat(used).isEqualTo(1);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void replacingTokenKeepsTheExpiration() {
+		// the column keeps microseconds
+		Instant expiresAt = Instant.now().plus(1, ChronoUnit.HOURS).truncatedTo(ChronoUnit.MICROS);
+		RefreshTokenOwner owner = refreshTokenService.consume(refreshTokenService.create(LOGIN, expiresAt)).orElseThrow();
+
+		String replacing = refreshTokenService.create(owner.getLogin(), owner.getExpiresAt());
+
+		assertThat(owner.getExpiresAt()).isEqualTo(expiresAt);
+		assertThat(refreshTokenService.consume(replacing).map(RefreshTokenOwner::getExpiresAt)).contains(expiresAt);
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		String token = refreshTokenService.create(LOGIN, Instant.now().minusSeconds(1));
+
+		assertThat(refreshTokenService.consume(token)).isEmpty();
+	}
+
+	@Test
+	void tokensAreRejectedAfterDeleteAll() {
+		String token = refreshTokenService.create(LOGIN, true);
+
+		refreshTokenService.deleteAll(LOGIN);
+
+		assertThat(refreshTokenService.consume(token)).isEmpty();
+	}
+}
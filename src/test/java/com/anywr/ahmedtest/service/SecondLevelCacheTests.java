@@ -0,0 +1,109 @@
+package com.anywr.ahmedtest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Checks that study classes and teachers are served from the second-level cache, and that writes through the
+ * services evict them. Each call commits, as entries are only cached and evicted on commit.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class SecondLevelCacheTests {
+
+	@Autowired
+	private StudyClassService studyClassService;
+
+	@Autowired
+	private TeacherService teacherService;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private Long studyClassId;
+
+	private Long teacherId;
+
+	@BeforeEach
+	void setUp() {
+		studyClassId = studyClassService.save(new StudyClass().name("cached-class")).getId();
+		teacherId = teacherService.save(new Teacher().firstName("cached").lastName("teacher").studyClass(new StudyClass().id(studyClassId))).getId();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (teacherRepository.existsById(teacherId)) {
+			teacherService.delete(teacherId);
+		}
+		studyClassService.delete(studyClassId);
+	}
+
+	@Test
+	void studyClassIsReadFromTheCache() {
+		studyClassRepository.findById(studyClassId);
+		statistics.clear();
+
+		assertThat(studyClassRepository.findById(studyClassId)).get().extracting(StudyClass::getName).isEqualTo("cached-class");
+		assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+		// the study class row comes from the cache, its teacher, the non-owning side of a one-to-one, is still
+		// selected by study class id
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void studyClassUpdateEvictsTheCache() {
+		studyClassRepository.findById(studyClassId);
+
+		studyClassService.update(new StudyClass().id(studyClassId).name("renamed-class"), null);
+
+		assertThat(studyClassRepository.findById(studyClassId)).get().extracting(StudyClass::getName).isEqualTo("renamed-class");
+	}
+
+	@Test
+	void teacherOfStudyClassIsReadFromTheQueryCache() {
+		teacherService.findOneByStudyClassId(studyClassId);
+		statistics.clear();
+
+		assertThat(teacherService.findOneByStudyClassId(studyClassId)).get().extracting(Teacher::getId).isEqualTo(teacherId);
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void teacherUpdateEvictsTheCache() {
+		teacherService.findOneByStudyClassId(studyClassId);
+
+		teacherService.partialUpdate(new Teacher().id(teacherId).firstName("changed"), null);
+
+		assertThat(teacherService.findOneByStudyClassId(studyClassId)).get().extracting(Teacher::getFirstName).isEqualTo("changed");
+	}
+
+	@Test
+	void teacherDeleteEvictsTheQueryCache() {
+		teacherService.findOneByStudyClassId(studyClassId);
+
+		teacherService.delete(teacherId);
+
+		assertThat(teacherService.findOneByStudyClassId(studyClassId)).isEmpty();
+	}
+}
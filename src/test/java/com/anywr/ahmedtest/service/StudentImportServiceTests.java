@@ -0,0 +1,114 @@
+package com.anywr.ahmedtest.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.service.dto.StudentImportSummary;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Imports files spanning several batches, with invalid rows spread over them, and checks the summary against the
+ * rows written. Each batch commits on its own, so the test isn't transactional and deletes its rows afterwards.
+ */
+@SpringBootTest
+class StudentImportServiceTests {
+
+	// more than two batches, the last one partial
+	private static final int ROWS = 2 * StudentImportService.BATCH_SIZE + 234;
+
+	private static final String STUDY_CLASS_NAME = "import-class";
+
+	@Autowired
+	private StudentImportService studentImportService;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long studyClassId;
+
+	@BeforeEach
+	void setUp() {
+		studyClassId = studyClassRepository.save(new StudyClass().name(STUDY_CLASS_NAME)).getId();
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM student WHERE study_class_id = ?", studyClassId);
+		studyClassRepository.deleteById(studyClassId);
+	}
+
+	@Test
+	void csvImportCountsImportedAndRejectedRows() throws Exception {
+		StringBuilder csv = new StringBuilder("firstName,lastName,studyClassName\n");
+		int unknownClasses = 0;
+		for (int i = 0; i < ROWS; i++) {
+			boolean unknownClass = i % 100 == 0;
+			unknownClasses += unknownClass ? 1 : 0;
+			csv.append("first").append(i).append(",last").append(i).append(',')
+					.append(unknownClass ? "missing-class" : STUDY_CLASS_NAME).append('\n');
+		}
+
+		StudentImportSummary summary = studentImportService.importCsv(stream(csv));
+
+		assertThat(summary.isComplete()).isTrue();
+		assertThat(summary.getRows()).isEqualTo(ROWS);
+		assertThat(summary.getRejected()).isEqualTo(unknownClasses);
+		assertThat(summary.getImported()).isEqualTo(ROWS - unknownClasses);
+		assertThat(summary.getErrors()).hasSize(unknownClasses);
+		assertThat(summary.getErrors().get(1).getIndex()).isEqualTo(100);
+		assertThat(summary.getErrors().get(1).getMessage()).isEqualTo("Study Class doesn't exist");
+		assertThat(studentRepository.countByStudyClassIdIn(List.of(studyClassId))).isEqualTo(ROWS - unknownClasses);
+	}
+
+	@Test
+	void ndjsonImportCountsImportedAndRejectedRows() throws Exception {
+		StringBuilder ndjson = new StringBuilder();
+		int unknownClasses = 0;
+		int missingLastNames = 0;
+		for (int i = 0; i < ROWS; i++) {
+			if (i % 100 == 0) {
+				unknownClasses++;
+				ndjson.append("{\"firstName\":\"first").append(i).append("\",\"lastName\":\"last").append(i)
+						.append("\",\"studyClassName\":\"missing-class\"}\n");
+			} else if (i % 100 == 50) {
+				missingLastNames++;
+				ndjson.append("{\"firstName\":\"first").append(i).append("\",\"studyClassName\":\"").append(STUDY_CLASS_NAME)
+						.append("\"}\n");
+			} else {
+				ndjson.append("{\"firstName\":\"first").append(i).append("\",\"lastName\":\"last").append(i)
+						.append("\",\"studyClassName\":\"").append(STUDY_CLASS_NAME).append("\"}\n");
+			}
+		}
+
+		StudentImportSummary summary = studentImportService.importNdjson(stream(ndjson));
+
+		int rejected = unknownClasses + missingLastNames;
+		assertThat(summary.isComplete()).isTrue();
+		assertThat(summary.getRows()).isEqualTo(ROWS);
+		assertThat(summary.getRejected()).isEqualTo(rejected);
+		assertThat(summary.getImported()).isEqualTo(ROWS - rejected);
+		assertThat(summary.getErrors().get(1).getIndex()).isEqualTo(50);
+		assertThat(summary.getErrors().get(1).getMessage()).startsWith("lastName");
+		assertThat(studentRepository.countByStudyClassIdIn(List.of(studyClassId))).isEqualTo(ROWS - rejected);
+	}
+
+	private static ByteArrayInputStream stream(CharSequence content) {
+		return new ByteArrayInputStream(content.toString().getBytes(StandardCharsets.UTF_8));
+	}
+}
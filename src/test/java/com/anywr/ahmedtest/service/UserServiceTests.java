@@ -0,0 +1,45 @@
+package com.anywr.ahmedtest.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.anywr.ahmedtest.repository.AuthorityRepository;
+import com.anywr.ahmedtest.repository.UserRepository;
+import com.anywr.ahmedtest.security.AuthoritiesConstants;
+import com.anywr.ahmedtest.service.dto.UserDTO;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Checks that a user is not registered without the {@code ROLE_USER} authority, which the API requires.
+ */
+class UserServiceTests {
+
+	private final UserRepository userRepository = mock(UserRepository.class);
+
+	private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+
+	private final AuthorityRepository authorityRepository = mock(AuthorityRepository.class);
+
+	private final UserService userService = new UserService(userRepository, passwordEncoder, mock(UserCache.class),
+			authorityRepository);
+
+	@Test
+	void registrationFailsWithoutTheUserAuthority() {
+		when(userRepository.findOneByLogin("new-user")).thenReturn(Optional.empty());
+		when(authorityRepository.findById(AuthoritiesConstants.USER)).thenReturn(Optional.empty());
+		UserDTO user = new UserDTO();
+		user.setLogin("new-user");
+
+		assertThatThrownBy(() -> userService.registerUser(user, "password")).isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining(AuthoritiesConstants.USER);
+		verify(passwordEncoder, never()).encode(any());
+		verify(userRepository, never()).save(any());
+	}
+}
@@ -0,0 +1,91 @@
+package com.anywr.ahmedtest.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.domain.Authority;
+import com.anywr.ahmedtest.repository.UserRepository;
+import com.anywr.ahmedtest.security.AuthoritiesConstants;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Checks the authorities required by the API: {@code ROLE_USER} for {@code /api/**}, {@code ROLE_ADMIN} for the
+ * bulk, import and export endpoints, and that a registered user gets {@code ROLE_USER}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AuthorizationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private static final String LOGIN = "authorization-test";
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@AfterEach
+	void tearDown() {
+		userRepository.findOneByLogin(LOGIN).ifPresent(userRepository::delete);
+	}
+
+	@Test
+	void apiRequiresAuthentication() throws Exception {
+		mockMvc.perform(get("/api/students")).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	@WithMockUser(roles = "GUEST")
+	void apiRequiresTheUserRole() throws Exception {
+		mockMvc.perform(get("/api/students")).andExpect(status().isForbidden());
+	}
+
+	@Test
+	@WithMockUser
+	void userCanReadTheApi() throws Exception {
+		mockMvc.perform(get("/api/students")).andExpect(status().isOk());
+	}
+
+	@Test
+	@WithMockUser
+	void adminEndpointsAreForbiddenToUsers() throws Exception {
+		mockMvc.perform(get("/api/students/export")).andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/students/import").contentType("text/csv").content("firstName,lastName,studyClassName\n"))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(delete("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isForbidden());
+		mockMvc.perform(post("/api/teachers/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	@WithMockUser(roles = "ADMIN")
+	void adminEndpointsAreAllowedToAdmins() throws Exception {
+		mockMvc.perform(get("/api/students/export")).andExpect(status().isOk());
+		mockMvc.perform(post("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void registeredUserGetsTheUserRole() throws Exception {
+		mockMvc.perform(post("/api/register").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"login\":\"" + LOGIN + "\",\"password\":\"authorization-password\"}"))
+				.andExpect(status().isCreated());
+
+		assertThat(userRepository.findOneWithAuthoritiesByLogin(LOGIN).orElseThrow().getAuthorities()
+				.stream().map(Authority::getName).collect(Collectors.toSet())).containsExactly(AuthoritiesConstants.USER);
+	}
+}
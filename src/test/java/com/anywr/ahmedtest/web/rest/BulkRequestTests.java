@@ -0,0 +1,160 @@
+package com.anywr.ahmedtest.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.config.Constants;
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks the result of each item of the bulk endpoints: valid items are written, invalid or unknown ones are
+ * reported with their index and skipped.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+@Transactional
+class BulkRequestTests {
+
+	private static final long UNKNOWN_ID = Long.MAX_VALUE;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	private StudyClass firstClass;
+
+	private StudyClass secondClass;
+
+	private StudyClass thirdClass;
+
+	@BeforeEach
+	void setUp() {
+		firstClass = studyClassRepository.save(new StudyClass().name("bulk-first"));
+		secondClass = studyClassRepository.save(new StudyClass().name("bulk-second"));
+		thirdClass = studyClassRepository.save(new StudyClass().name("bulk-third"));
+	}
+
+	@Test
+	void studentWithUnknownStudyClassIsRejected() throws Exception {
+		bulk(post("/api/students/bulk"), "[" + student(null, "valid", firstClass.getId()) + ","
+				+ student(null, "unknown", UNKNOWN_ID) + "," + student(null, "missing", null) + "]")
+				.andExpect(jsonPath("$[0].index").value(0)).andExpect(jsonPath("$[0].status").value(201))
+				.andExpect(jsonPath("$[0].id").isNumber()).andExpect(jsonPath("$[1].index").value(1))
+				.andExpect(jsonPath("$[1].status").value(400))
+				.andExpect(jsonPath("$[1].message").value("Study Class doesn't exist"))
+				.andExpect(jsonPath("$[2].status").value(400))
+				.andExpect(jsonPath("$[2].message").value("studyClass must not be null"));
+	}
+
+	@Test
+	void studyClassTakenTwiceInABatchIsRejectedTheSecondTime() throws Exception {
+		teacherRepository.save(new Teacher().firstName("taken").lastName("teacher").studyClass(thirdClass).refreshFullName());
+
+		bulk(post("/api/teachers/bulk"), "[" + teacher(null, "first", firstClass.getId()) + ","
+				+ teacher(null, "second", firstClass.getId()) + "," + teacher(null, "third", thirdClass.getId()) + ","
+				+ teacher(null, "unknown", UNKNOWN_ID) + "]").andExpect(jsonPath("$[0].status").value(201))
+				.andExpect(jsonPath("$[1].status").value(400))
+				.andExpect(jsonPath("$[1].message").value("Study Class has already a teacher"))
+				.andExpect(jsonPath("$[2].status").value(400))
+				.andExpect(jsonPath("$[2].message").value("Study Class has already a teacher"))
+				.andExpect(jsonPath("$[3].status").value(400))
+				.andExpect(jsonPath("$[3].message").value("Study Class doesn't exist"));
+	}
+
+	@Test
+	void deleteReportsMissingIds() throws Exception {
+		Long id = studentRepository.save(new Student().firstName("bulk").lastName("delete").studyClass(firstClass)).getId();
+
+		bulk(delete("/api/students/bulk"), "[" + UNKNOWN_ID + "," + id + "," + id + "]")
+				.andExpect(jsonPath("$[0].status").value(404)).andExpect(jsonPath("$[0].id").value(UNKNOWN_ID))
+				.andExpect(jsonPath("$[1].status").value(204)).andExpect(jsonPath("$[1].id").value(id))
+				.andExpect(jsonPath("$[2].status").value(404));
+		assertThat(studentRepository.existsById(id)).isFalse();
+	}
+
+	@Test
+	void studentUpdateReportsEachItem() throws Exception {
+		Long id = studentRepository.save(new Student().firstName("bulk").lastName("update").studyClass(firstClass)).getId();
+
+		bulk(put("/api/students/bulk"), "[" + student(id, "updated", secondClass.getId()) + ","
+				+ student(UNKNOWN_ID, "unknown", secondClass.getId()) + "," + student(null, "no id", secondClass.getId()) + ","
+				+ student(id, "unknown class", UNKNOWN_ID) + "," + student(id, "twice", secondClass.getId()) + "]")
+				.andExpect(jsonPath("$[0].status").value(200)).andExpect(jsonPath("$[1].status").value(404))
+				.andExpect(jsonPath("$[2].status").value(400)).andExpect(jsonPath("$[2].message").value("Invalid id"))
+				.andExpect(jsonPath("$[3].status").value(400))
+				.andExpect(jsonPath("$[3].message").value("Study Class doesn't exist"))
+				.andExpect(jsonPath("$[4].status").value(400));
+		mockMvc.perform(get("/api/students/" + id)).andExpect(jsonPath("$.lastName").value("updated"))
+				.andExpect(jsonPath("$.studyClass.id").value(secondClass.getId()));
+	}
+
+	@Test
+	void teacherUpdateOnlyTakesFreeStudyClasses() throws Exception {
+		Long first = teacherRepository.save(new Teacher().firstName("bulk").lastName("first").studyClass(firstClass).refreshFullName())
+				.getId();
+		Long second = teacherRepository
+				.save(new Teacher().firstName("bulk").lastName("second").studyClass(secondClass).refreshFullName()).getId();
+
+		// the first teacher keeps its class, the second can't take it nor the class the first would leave
+		bulk(put("/api/teachers/bulk"), "[" + teacher(first, "renamed", firstClass.getId()) + ","
+				+ teacher(second, "taken", firstClass.getId()) + "," + teacher(second, "moved", thirdClass.getId()) + "]")
+				.andExpect(jsonPath("$[0].status").value(200)).andExpect(jsonPath("$[1].status").value(400))
+				.andExpect(jsonPath("$[1].message").value("Study Class has already a teacher"))
+				.andExpect(jsonPath("$[2].status").value(200));
+		mockMvc.perform(get("/api/teachers/" + first)).andExpect(jsonPath("$.lastName").value("renamed"));
+		assertThat(teacherRepository.findById(first).orElseThrow().getFullName()).isEqualTo("bulk renamed");
+		mockMvc.perform(get("/api/teachers/" + second)).andExpect(jsonPath("$.studyClass.id").value(thirdClass.getId()));
+	}
+
+	@Test
+	void oversizedBatchIsRejected() throws Exception {
+		String ids = String.join(",", Collections.nCopies(Constants.BULK_MAX_SIZE + 1, "1"));
+
+		mockMvc.perform(delete("/api/students/bulk").contentType(MediaType.APPLICATION_JSON).content("[" + ids + "]"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private ResultActions bulk(MockHttpServletRequestBuilder request, String body) throws Exception {
+		return mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(body)).andExpect(status().isOk());
+	}
+
+	private static String student(Long id, String lastName, Long studyClassId) {
+		return "{\"id\":" + id + ",\"firstName\":\"bulk\",\"lastName\":\"" + lastName + "\",\"studyClass\":"
+				+ (studyClassId == null ? "null" : "{\"id\":" + studyClassId + "}") + "}";
+	}
+
+	private static String teacher(Long id, String lastName, Long studyClassId) {
+		return student(id, lastName, studyClassId);
+	}
+}
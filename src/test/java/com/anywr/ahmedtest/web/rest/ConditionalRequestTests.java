@@ -0,0 +1,198 @@
+package com.anywr.ahmedtest.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import com.anywr.ahmedtest.service.StudentService;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Checks the conditional requests of the student resource: {@code If-None-Match} on reads, {@code If-Match} on
+ * updates, and that the list entity tag only changes once a write is committed. Also checks that every resource
+ * accepts updates without {@code If-Match}. The writes of a test are committed, so the test isn't transactional and
+ * deletes its rows afterwards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ConditionalRequestTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StudentService studentService;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private final List<Long> studentIds = new ArrayList<>();
+
+	private StudyClass studyClass;
+
+	private Long studentId;
+
+	@BeforeEach
+	void setUp() {
+		studyClass = studyClassRepository.save(new StudyClass().name("etag-class"));
+		studentId = studentRepository.save(new Student().firstName("etag").lastName("student").studyClass(studyClass)).getId();
+		studentIds.add(studentId);
+	}
+
+	@AfterEach
+	void tearDown() {
+		studentRepository.deleteAllById(studentIds);
+		studyClassRepository.deleteById(studyClass.getId());
+	}
+
+	@Test
+	void studentWithMatchingIfNoneMatchIsNotModified() throws Exception {
+		String eTag = eTagOf("/api/students/" + studentId);
+
+		mockMvc.perform(get("/api/students/" + studentId).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void listWithMatchingIfNoneMatchIsNotModified() throws Exception {
+		String eTag = eTagOf("/api/students");
+
+		mockMvc.perform(get("/api/students").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified()).andExpect(header().string(HttpHeaders.ETAG, eTag));
+	}
+
+	@Test
+	void putWithStaleIfMatchFails() throws Exception {
+		String eTag = eTagOf("/api/students/" + studentId);
+		mockMvc.perform(put("/api/students/" + studentId).header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON).content(studentJson("renamed")))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(put("/api/students/" + studentId).header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON).content(studentJson("renamed again")))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void patchWithStaleIfMatchFails() throws Exception {
+		String eTag = eTagOf("/api/students/" + studentId);
+		mockMvc.perform(patch("/api/students/" + studentId).header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"id\":" + studentId + ",\"lastName\":\"renamed\"}"))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(patch("/api/students/" + studentId).header(HttpHeaders.IF_MATCH, eTag)
+				.contentType(MediaType.APPLICATION_JSON).content("{\"id\":" + studentId + ",\"lastName\":\"renamed again\"}"))
+				.andExpect(status().isPreconditionFailed());
+	}
+
+	@Test
+	void putWithoutIfMatchUpdatesAnyVersion() throws Exception {
+		String eTag = eTagOf("/api/students/" + studentId);
+
+		String updatedETag = mockMvc.perform(put("/api/students/" + studentId).contentType(MediaType.APPLICATION_JSON)
+				.content(studentJson("renamed"))).andExpect(status().isOk()).andExpect(jsonPath("$.lastName").value("renamed"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertThat(updatedETag).isNotEqualTo(eTag);
+	}
+
+	@Test
+	void patchWithoutIfMatchUpdatesAnyVersion() throws Exception {
+		mockMvc.perform(patch("/api/students/" + studentId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + studentId + ",\"lastName\":\"renamed\"}")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.firstName").value("etag")).andExpect(jsonPath("$.lastName").value("renamed"));
+	}
+
+	@Test
+	void teacherPutWithoutIfMatchUpdatesAnyVersion() throws Exception {
+		Long teacherId = teacherRepository.save(new Teacher().firstName("etag").lastName("teacher").studyClass(studyClass).refreshFullName())
+				.getId();
+		try {
+			mockMvc.perform(put("/api/teachers/" + teacherId).contentType(MediaType.APPLICATION_JSON)
+					.content("{\"id\":" + teacherId + ",\"firstName\":\"etag\",\"lastName\":\"renamed\",\"studyClass\":{\"id\":"
+							+ studyClass.getId() + "}}"))
+					.andExpect(status().isOk()).andExpect(jsonPath("$.lastName").value("renamed"));
+		} finally {
+			teacherRepository.deleteById(teacherId);
+		}
+	}
+
+	@Test
+	void studyClassPutWithoutIfMatchUpdatesAnyVersion() throws Exception {
+		mockMvc.perform(put("/api/study-classes/" + studyClass.getId()).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + studyClass.getId() + ",\"name\":\"etag-renamed\"}"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.name").value("etag-renamed"));
+	}
+
+	@Test
+	void listETagChangesOnlyAfterCommit() throws Exception {
+		String before = eTagOf("/api/students");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			studentIds.add(studentService.save(new Student().firstName("etag").lastName("added").studyClass(studyClass)).getId());
+			assertThat(eTagOf("/api/students")).isEqualTo(before);
+		});
+
+		String after = eTagOf("/api/students");
+		assertThat(after).isNotEqualTo(before);
+		mockMvc.perform(get("/api/students").header(HttpHeaders.IF_NONE_MATCH, before)).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, after));
+	}
+
+	@Test
+	void listETagIsKeptOnRollback() throws Exception {
+		String before = eTagOf("/api/students");
+
+		transactionTemplate.executeWithoutResult(status -> {
+			studentService.save(new Student().firstName("etag").lastName("rolled back").studyClass(studyClass));
+			status.setRollbackOnly();
+		});
+
+		assertThat(eTagOf("/api/students")).isEqualTo(before);
+	}
+
+	private String eTagOf(String url) {
+		try {
+			return mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private String studentJson(String lastName) {
+		return "{\"id\":" + studentId + ",\"firstName\":\"etag\",\"lastName\":\"" + lastName
+				+ "\",\"studyClass\":{\"id\":" + studyClass.getId() + "}}";
+	}
+}
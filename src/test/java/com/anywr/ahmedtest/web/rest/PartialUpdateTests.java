@@ -0,0 +1,113 @@
+package com.anywr.ahmedtest.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import com.anywr.ahmedtest.service.StudyClassService;
+import com.anywr.ahmedtest.service.dto.StudyClassDTO;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Checks that a partial update leaves the omitted fields unchanged, with and without a version to check: a field
+ * left out must not reach the database as an untyped {@code null}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@Transactional
+class PartialUpdateTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	@Autowired
+	private StudyClassService studyClassService;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private StudyClass studyClass;
+
+	private Long studentId;
+
+	private Long teacherId;
+
+	@BeforeEach
+	void setUp() {
+		studyClass = studyClassRepository.save(new StudyClass().name("patch-class"));
+		studentId = studentRepository.save(new Student().firstName("first").lastName("last").studyClass(studyClass)).getId();
+		teacherId = teacherRepository.save(new Teacher().firstName("first").lastName("last").studyClass(studyClass).refreshFullName()).getId();
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void studentPatchWithoutLastNameKeepsIt() throws Exception {
+		mockMvc.perform(patch("/api/students/" + studentId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + studentId + ",\"firstName\":\"changed\"}"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.firstName").value("changed"))
+				.andExpect(jsonPath("$.lastName").value("last"));
+	}
+
+	@Test
+	void studentPatchWithoutFirstNameKeepsIt() throws Exception {
+		mockMvc.perform(patch("/api/students/" + studentId).header("If-Match", "\"0\"").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + studentId + ",\"lastName\":\"changed\"}"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.firstName").value("first"))
+				.andExpect(jsonPath("$.lastName").value("changed"));
+	}
+
+	@Test
+	void teacherPatchWithoutFirstNameKeepsItInTheFullName() throws Exception {
+		mockMvc.perform(patch("/api/teachers/" + teacherId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + teacherId + ",\"lastName\":\"changed\"}"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.firstName").value("first"))
+				.andExpect(jsonPath("$.lastName").value("changed"));
+
+		entityManager.clear();
+		assertThat(teacherRepository.findById(teacherId)).get().extracting(Teacher::getFullName).isEqualTo("first changed");
+	}
+
+	@Test
+	void teacherPatchWithoutNamesOnlyBumpsTheVersion() throws Exception {
+		mockMvc.perform(patch("/api/teachers/" + teacherId).contentType(MediaType.APPLICATION_JSON)
+				.content("{\"id\":" + teacherId + "}"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.firstName").value("first"))
+				.andExpect(jsonPath("$.lastName").value("last"));
+
+		entityManager.clear();
+		assertThat(teacherRepository.findById(teacherId)).get().extracting(Teacher::getFullName).isEqualTo("first last");
+	}
+
+	@Test
+	void studyClassPatchWithoutNameKeepsIt() {
+		assertThat(studyClassService.partialUpdate(new StudyClass().id(studyClass.getId()), null)).get()
+				.extracting(StudyClassDTO::getName).isEqualTo("patch-class");
+	}
+}
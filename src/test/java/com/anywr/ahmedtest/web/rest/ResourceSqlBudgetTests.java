@@ -0,0 +1,133 @@
+package com.anywr.ahmedtest.web.rest;
+
+import static com.anywr.ahmedtest.management.SqlStatementAssert.assertSql;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Pins the number of SQL statements run by the read endpoints of the student, teacher and study class resources,
+ * so that a mapping change multiplying them fails here rather than in production. Keep the {@code @SqlBudget} of
+ * the endpoints in line.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser
+@Transactional
+class ResourceSqlBudgetTests {
+
+	private static final int CLASS_COUNT = 6;
+
+	private static final int STUDENTS_PER_CLASS = 4;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private Long studentId;
+
+	private Long teacherId;
+
+	private Long studyClassId;
+
+	@BeforeEach
+	void setUp() {
+		for (int i = 0; i < CLASS_COUNT; i++) {
+			StudyClass studyClass = studyClassRepository.save(new StudyClass().name("budget-class-" + i));
+			Teacher teacher = teacherRepository.save(new Teacher().firstName("teacher").lastName("n" + i).studyClass(studyClass).refreshFullName());
+			for (int j = 0; j < STUDENTS_PER_CLASS; j++) {
+				studentId = studentRepository.save(new Student().firstName("student").lastName("n" + i + "-" + j).studyClass(studyClass)).getId();
+			}
+			studyClassId = studyClass.getId();
+			teacherId = teacher.getId();
+		}
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void studentPageRunsSelectAndCount() {
+		assertSql(() -> mockMvc.perform(get("/api/students?page=0&size=10")).andExpect(status().isOk()))
+				.hasStatementCount(2).hasRowCountAtMost(11);
+	}
+
+	@Test
+	void filteredStudentPageRunsFilterSelectAndCount() {
+		assertSql(() -> mockMvc.perform(get("/api/students?page=0&size=2&studyClassName=budget-class-1"))
+				.andExpect(status().isOk())).hasStatementCount(3);
+	}
+
+	@Test
+	void studentKeysetPageRunsSingleSelect() {
+		assertSql(() -> mockMvc.perform(get("/api/students?after=&size=10")).andExpect(status().isOk()))
+				.hasStatementCount(1);
+	}
+
+	@Test
+	void studentRunsSingleSelect() {
+		assertSql(() -> mockMvc.perform(get("/api/students/" + studentId)).andExpect(status().isOk()))
+				.hasStatementCount(1).hasRowCountAtMost(1);
+	}
+
+	@Test
+	void teacherPageRunsSelectAndCount() {
+		assertSql(() -> mockMvc.perform(get("/api/teachers?page=0&size=2")).andExpect(status().isOk()))
+				.hasStatementCount(2);
+	}
+
+	@Test
+	void teacherKeysetPageRunsSingleSelect() {
+		assertSql(() -> mockMvc.perform(get("/api/teachers?after=&size=2")).andExpect(status().isOk()))
+				.hasStatementCount(1);
+	}
+
+	@Test
+	void teacherRunsSingleSelect() {
+		assertSql(() -> mockMvc.perform(get("/api/teachers/" + teacherId)).andExpect(status().isOk()))
+				.hasStatementCount(1).hasRowCountAtMost(1);
+	}
+
+	@Test
+	void studyClassPageRunsSelectAndCount() {
+		assertSql(() -> mockMvc.perform(get("/api/study-classes?page=0&size=2")).andExpect(status().isOk()))
+				.hasStatementCount(2);
+	}
+
+	@Test
+	void studyClassKeysetPageRunsSingleSelect() {
+		assertSql(() -> mockMvc.perform(get("/api/study-classes?after=&size=2")).andExpect(status().isOk()))
+				.hasStatementCount(1);
+	}
+
+	@Test
+	void studyClassRunsSingleSelect() {
+		assertSql(() -> mockMvc.perform(get("/api/study-classes/" + studyClassId)).andExpect(status().isOk()))
+				.hasStatementCount(1).hasRowCountAtMost(1);
+	}
+}
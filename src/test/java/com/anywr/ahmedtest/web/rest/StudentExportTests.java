@@ -0,0 +1,170 @@
+package com.anywr.ahmedtest.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.domain.Student;
+import com.anywr.ahmedtest.domain.StudyClass;
+import com.anywr.ahmedtest.domain.Teacher;
+import com.anywr.ahmedtest.repository.StudentRepository;
+import com.anywr.ahmedtest.repository.StudyClassRepository;
+import com.anywr.ahmedtest.repository.TeacherRepository;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * Checks the rows of the student export, as NDJSON and CSV, filtered and gzipped. The export reads its rows in its
+ * own transaction on the async thread, so the test isn't transactional and deletes its rows afterwards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(roles = "ADMIN")
+class StudentExportTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private TeacherRepository teacherRepository;
+
+	@Autowired
+	private StudyClassRepository studyClassRepository;
+
+	private StudyClass taught;
+
+	private StudyClass other;
+
+	private Teacher teacher;
+
+	private Student first;
+
+	private Student second;
+
+	private Student third;
+
+	@BeforeEach
+	void setUp() {
+		taught = studyClassRepository.save(new StudyClass().name("export-taught"));
+		other = studyClassRepository.save(new StudyClass().name("export-other"));
+		teacher = teacherRepository.save(new Teacher().firstName("export").lastName("teacher").studyClass(taught).refreshFullName());
+		first = studentRepository.save(new Student().firstName("export").lastName("first").studyClass(taught));
+		second = studentRepository.save(new Student().firstName("export").lastName("second").studyClass(taught));
+		third = studentRepository.save(new Student().firstName("export").lastName("third").studyClass(other));
+	}
+
+	@AfterEach
+	void tearDown() {
+		studentRepository.deleteAllById(List.of(first.getId(), second.getId(), third.getId()));
+		teacherRepository.deleteById(teacher.getId());
+		studyClassRepository.deleteAllById(List.of(taught.getId(), other.getId()));
+	}
+
+	@Test
+	void ndjsonHasOneStudentPerLine() throws Exception {
+		MvcResult result = export(get("/api/students/export").param("studyClassName", "export-taught"));
+
+		assertThat(result.getResponse().getContentType()).isEqualTo("application/x-ndjson");
+		assertThat(lines(result.getResponse().getContentAsByteArray())).containsExactly(ndjson(first, taught),
+				ndjson(second, taught));
+	}
+
+	@Test
+	void csvHasAHeaderAndOneStudentPerRow() throws Exception {
+		MvcResult result = export(get("/api/students/export").param("format", "csv").param("studyClassName", "export-other"));
+
+		assertThat(result.getResponse().getContentType()).isEqualTo("text/csv");
+		assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("students.csv");
+		assertThat(lines(result.getResponse().getContentAsByteArray())).containsExactly(
+				"id,firstName,lastName,studyClassId,studyClassName", csv(third, other));
+	}
+
+	@Test
+	void filtersAreCombined() throws Exception {
+		MvcResult byTeacher = export(get("/api/students/export").param("format", "csv").param("teacherFullName", "export teacher"));
+		MvcResult byBoth = export(get("/api/students/export").param("format", "csv").param("teacherFullName", "export teacher")
+				.param("studyClassName", "export-other"));
+
+		assertThat(lines(byTeacher.getResponse().getContentAsByteArray())).containsExactly(
+				"id,firstName,lastName,studyClassId,studyClassName", csv(first, taught), csv(second, taught));
+		// no class named export-other has this teacher, only the header is written
+		assertThat(lines(byBoth.getResponse().getContentAsByteArray())).containsExactly(
+				"id,firstName,lastName,studyClassId,studyClassName");
+	}
+
+	@Test
+	void unfilteredExportHasEveryStudent() throws Exception {
+		MvcResult result = export(get("/api/students/export"));
+
+		assertThat(lines(result.getResponse().getContentAsByteArray())).contains(ndjson(first, taught), ndjson(second, taught),
+				ndjson(third, other));
+	}
+
+	@Test
+	void gzipExportIsComplete() throws Exception {
+		MvcResult result = export(get("/api/students/export").param("studyClassName", "export-taught")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+
+		assertThat(result.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+		// reading to the end checks the gzip trailer, which is only written by finish()
+		assertThat(lines(gunzip(result.getResponse().getContentAsByteArray()))).containsExactly(ndjson(first, taught),
+				ndjson(second, taught));
+	}
+
+	@Test
+	void unknownFormatIsRejected() throws Exception {
+		mockMvc.perform(get("/api/students/export").param("format", "xml")).andExpect(status().isBadRequest());
+	}
+
+	private MvcResult export(MockHttpServletRequestBuilder request) throws Exception {
+		MvcResult started = mockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+		return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk())
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT_ENCODING))).andReturn();
+	}
+
+	private static List<String> lines(byte[] content) {
+		return Arrays.stream(new String(content, StandardCharsets.UTF_8).split("\n")).filter(line -> !line.isEmpty())
+				.collect(Collectors.toList());
+	}
+
+	private static byte[] gunzip(byte[] content) throws IOException {
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static String ndjson(Student student, StudyClass studyClass) {
+		return "{\"id\":" + student.getId() + ",\"firstName\":\"" + student.getFirstName() + "\",\"lastName\":\""
+				+ student.getLastName() + "\",\"studyClass\":{\"id\":" + studyClass.getId() + ",\"name\":\""
+				+ studyClass.getName() + "\"}}";
+	}
+
+	private static String csv(Student student, StudyClass studyClass) {
+		return student.getId() + "," + student.getFirstName() + "," + student.getLastName() + "," + studyClass.getId() + ","
+				+ studyClass.getName();
+	}
+}
@@ -0,0 +1,131 @@
+package com.anywr.ahmedtest.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.anywr.ahmedtest.domain.RefreshToken;
+import com.anywr.ahmedtest.domain.User;
+import com.anywr.ahmedtest.repository.RefreshTokenRepository;
+import com.anywr.ahmedtest.repository.UserRepository;
+import com.anywr.ahmedtest.service.RefreshTokenService;
+import com.anywr.ahmedtest.service.UserService;
+import com.anywr.ahmedtest.service.dto.UserDTO;
+import com.jayway.jsonpath.JsonPath;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * Checks the tokens returned by {@code /api/authenticate}: a refresh token can be used once and is replaced by one
+ * expiring at the same time, and a logout revokes the access token, also once it is in the verified token cache,
+ * and deletes the refresh tokens.
+ */
+@SpringBootTest(properties = "jwt.cache.enabled=true")
+@AutoConfigureMockMvc
+class UserJWTControllerTests {
+
+	private static final String LOGIN = "jwt-controller-test";
+
+	private static final String PASSWORD = "jwt-controller-password";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RefreshTokenService refreshTokenService;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
+	private String accessToken;
+
+	private String refreshToken;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		UserDTO user = new UserDTO();
+		user.setLogin(LOGIN);
+		userService.registerUser(user, PASSWORD);
+		MvcResult result = mockMvc.perform(post("/api/authenticate").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"username\":\"" + LOGIN + "\",\"password\":\"" + PASSWORD + "\"}")).andExpect(status().isOk())
+				.andReturn();
+		accessToken = JsonPath.read(result.getResponse().getContentAsString(), "$.id_token");
+		refreshToken = JsonPath.read(result.getResponse().getContentAsString(), "$.refresh_token");
+	}
+
+	@AfterEach
+	void tearDown() {
+		refreshTokenService.deleteAll(LOGIN);
+		userRepository.findOneByLogin(LOGIN).ifPresent(userRepository::delete);
+	}
+
+	@Test
+	void refreshTokenCanBeUsedOnce() throws Exception {
+		List<Instant> expirations = expirations();
+
+		MvcResult result = refresh(refreshToken).andExpect(status().isOk()).andReturn();
+		String newAccessToken = JsonPath.read(result.getResponse().getContentAsString(), "$.id_token");
+		String newRefreshToken = JsonPath.read(result.getResponse().getContentAsString(), "$.refresh_token");
+
+		assertThat(newRefreshToken).isNotEqualTo(refreshToken);
+		assertThat(expirations()).isEqualTo(expirations);
+		mockMvc.perform(get("/api/students").header(HttpHeaders.AUTHORIZATION, "Bearer " + newAccessToken))
+				.andExpect(status().isOk());
+		refresh(refreshToken).andExpect(status().isUnauthorized());
+		refresh(newRefreshToken).andExpect(status().isOk());
+	}
+
+	@Test
+	void unknownRefreshTokenIsRejected() throws Exception {
+		refresh("unknown").andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutRevokesTheAccessTokenAndTheRefreshTokens() throws Exception {
+		// puts the token in the verified token cache
+		mockMvc.perform(get("/api/students").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(post("/api/logout").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/api/students").header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken))
+				.andExpect(status().isUnauthorized());
+		refresh(refreshToken).andExpect(status().isUnauthorized());
+	}
+
+	@Test
+	void logoutRequiresAnAccessToken() throws Exception {
+		mockMvc.perform(post("/api/logout")).andExpect(status().isUnauthorized());
+	}
+
+	private ResultActions refresh(String token) throws Exception {
+		return mockMvc.perform(post("/api/refresh").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"refreshToken\":\"" + token + "\"}"));
+	}
+
+	private List<Instant> expirations() {
+		Long userId = userRepository.findOneByLogin(LOGIN).map(User::getId).orElseThrow();
+		return refreshTokenRepository.findAll().stream().filter(token -> token.getUser().getId().equals(userId))
+				.map(RefreshToken::getExpiresAt).collect(Collectors.toList());
+	}
+}